@@ -0,0 +1,33 @@
+package com.miniSpring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * ClassName: Batched
+ * Description:
+ * 将并发的单key调用（如findUser(id)）合并为一次批量调用（如findUsers(ids)）。被标注的方法必须只有一个参数；
+ * bulkMethod必须是同一个Bean中只有一个List（或Collection）参数的public方法，返回与参数顺序一致的List，
+ * 或 key -> 结果 的Map
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 16:05
+ * @Version 1.0
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Batched {
+    /**
+     * 批量方法名
+     */
+    String bulkMethod();
+
+    /**
+     * 每批最多合并的key数量，达到后立即执行
+     */
+    int maxSize() default 100;
+
+    /**
+     * 有并发调用时，批次中第一个调用最多等待的时间（微秒），到时无论是否凑满都执行；没有并发调用时直接执行
+     */
+    long maxDelayMicros() default 1000;
+}
@@ -0,0 +1,27 @@
+package com.miniSpring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * ClassName: Bulkhead
+ * Description:
+ * 并发隔离，限制同时执行的调用数，标注在类上时该类所有public方法共用许可，标注在方法上时该方法单独使用（优先于类上的注解）
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 14:27
+ * @Version 1.0
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface Bulkhead {
+    /**
+     * 最大并发数
+     */
+    int maxConcurrent();
+
+    /**
+     * 获取许可的最长等待时间（毫秒），默认0表示不等待，直接拒绝
+     */
+    long maxWait() default 0;
+}
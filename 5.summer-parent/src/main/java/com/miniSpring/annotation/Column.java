@@ -0,0 +1,25 @@
+package com.miniSpring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * ClassName: Column
+ * Description:
+ * 标注实体字段对应的列，未标注的字段使用字段名作为列名
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 10:42
+ * @Version 1.0
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Column {
+    //列名，默认为字段名
+    String value() default "";
+
+    //是否出现在INSERT中
+    boolean insertable() default true;
+
+    //是否出现在UPDATE中
+    boolean updatable() default true;
+}
@@ -0,0 +1,19 @@
+package com.miniSpring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * ClassName: Id
+ * Description:
+ * 标注实体类的主键字段，每个实体类有且只有一个
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 10:41
+ * @Version 1.0
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Id {
+    //是否由数据库生成（自增）：为true时INSERT不包含该列，插入后将生成的key写回字段
+    boolean generated() default false;
+}
@@ -0,0 +1,27 @@
+package com.miniSpring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * ClassName: RateLimited
+ * Description:
+ * 令牌桶限流，标注在类上时该类所有public方法共用一个令牌桶，标注在方法上时该方法单独使用一个令牌桶（优先于类上的注解）
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 14:25
+ * @Version 1.0
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface RateLimited {
+    /**
+     * 每秒产生的令牌数
+     */
+    double permitsPerSecond();
+
+    /**
+     * 令牌桶容量，即允许的突发调用数，默认0表示与每秒令牌数相同（至少为1）
+     */
+    int burst() default 0;
+}
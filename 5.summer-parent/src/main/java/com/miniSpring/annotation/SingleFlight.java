@@ -0,0 +1,19 @@
+package com.miniSpring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * ClassName: SingleFlight
+ * Description:
+ * 标注在类上，该Bean有返回值的public方法被同时以相同参数调用时只执行一次，所有调用者共享同一个结果或异常
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 17:30
+ * @Version 1.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface SingleFlight {
+    String value() default "singleFlightInvocationHandler"; //默认用这个Bean合并请求
+}
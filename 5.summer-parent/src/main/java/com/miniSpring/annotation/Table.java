@@ -0,0 +1,19 @@
+package com.miniSpring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * ClassName: Table
+ * Description:
+ * 标注实体类对应的表，由EntityTemplate生成增删改查的SQL
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 10:40
+ * @Version 1.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Table {
+    //表名
+    String value();
+}
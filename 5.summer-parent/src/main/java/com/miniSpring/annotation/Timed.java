@@ -0,0 +1,19 @@
+package com.miniSpring.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * ClassName: Timed
+ * Description:
+ * 标注在类上，记录该Bean所有public方法的耗时
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 11:02
+ * @Version 1.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited //子类可以继承该注解，与其他注解叠加代理时，代理类上仍能找到该注解
+@Documented
+public @interface Timed {
+    String value() default "timerRegistry"; //默认用这个Bean记录耗时
+}
@@ -1,18 +1,37 @@
 package com.miniSpring.annotation;
 
+import com.miniSpring.jdbc.tx.Isolation;
+import com.miniSpring.jdbc.tx.Propagation;
+
 import java.lang.annotation.*;
 
 /**
  * ClassName: Transactional
  * Description:
- *
+ * 标注在类上时对所有public方法生效，标注在方法上时覆盖类上的属性；属性在创建代理时按方法解析一次
  * @Author Jeffer Chen
  * @Create 2024/4/29 21:13
  * @Version 1.0
  */
-@Target(ElementType.TYPE)//注意这里只允许定义在类上，与SpringBoot不同
+@Target({ElementType.TYPE, ElementType.METHOD})
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Transactional {
     String value() default "platformTransactionManager"; //默认用这个Bean来管理事务
+
+    Propagation propagation() default Propagation.REQUIRED;
+
+    Isolation isolation() default Isolation.DEFAULT;
+
+    /**
+     * 只读事务：连接设置为setReadOnly(true)，配置了只读库时从只读库获取连接
+     */
+    boolean readOnly() default false;
+
+    /**
+     * 延迟写：事务中JdbcTemplate.update(sql, args)不立即执行，连续的相同SQL合并为JDBC批量执行，
+     * 在执行查询等其他语句前、达到batchSize条时、提交前执行；update返回Statement.SUCCESS_NO_INFO，
+     * 需要影响行数时使用JdbcTemplate.updateDeferred。加入已有事务时沿用该事务的设置
+     */
+    boolean writeBehind() default false;
 }
@@ -0,0 +1,46 @@
+package com.miniSpring.aop;
+
+import com.miniSpring.annotation.Bean;
+import com.miniSpring.annotation.Configuration;
+
+/**
+ * ClassName: AopConfiguration
+ * Description:
+ * 框架内置的AOP注解（@Timed、@RateLimited、@Bulkhead、@Batched、@SingleFlight等）所需的BeanPostProcessor和拦截器，使用时在启动类上@Import(AopConfiguration.class)
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 11:20
+ * @Version 1.0
+ */
+@Configuration
+public class AopConfiguration {
+
+    @Bean
+    TimedBeanPostProcessor timedBeanPostProcessor() {
+        return new TimedBeanPostProcessor();
+    }
+
+    @Bean
+    TimerRegistry timerRegistry() {
+        return new TimerRegistry();
+    }
+
+    @Bean
+    ConcurrencyGuardBeanPostProcessor concurrencyGuardBeanPostProcessor() {
+        return new ConcurrencyGuardBeanPostProcessor();
+    }
+
+    @Bean
+    BatchedBeanPostProcessor batchedBeanPostProcessor() {
+        return new BatchedBeanPostProcessor();
+    }
+
+    @Bean
+    SingleFlightBeanPostProcessor singleFlightBeanPostProcessor() {
+        return new SingleFlightBeanPostProcessor();
+    }
+
+    @Bean
+    SingleFlightInvocationHandler singleFlightInvocationHandler() {
+        return new SingleFlightInvocationHandler();
+    }
+}
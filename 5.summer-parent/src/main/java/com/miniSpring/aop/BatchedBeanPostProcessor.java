@@ -0,0 +1,82 @@
+package com.miniSpring.aop;
+
+import com.miniSpring.annotation.Batched;
+import com.miniSpring.exception.AopConfigException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ClassName: BatchedBeanPostProcessor
+ * Description:
+ * 为@Batched创建Proxy：每个@Batched方法对应一个MicroBatcher，未标注的方法直接调用原始Bean
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 16:50
+ * @Version 1.0
+ */
+public class BatchedBeanPostProcessor extends MethodAnnotationProxyBeanPostProcessor {
+
+    @Override
+    protected InvocationHandler createInvocationHandler(Object bean, Class<?> targetClass, String beanName) {
+        Map<Method, MicroBatcher> batchers = new HashMap<>();
+        for (Method m : targetClass.getMethods()) {
+            Batched batched = m.getAnnotation(Batched.class);
+            if (batched == null) {
+                continue;
+            }
+            if (m.getParameterCount() != 1) {
+                throw new AopConfigException(String.format("@Batched method %s.%s must have exactly 1 parameter.",
+                        targetClass.getSimpleName(), m.getName()));
+            }
+            Method bulkMethod = findBulkMethod(targetClass, batched.bulkMethod());
+            batchers.put(m, new MicroBatcher(bean, bulkMethod, m.getReturnType(), batched.maxSize(),
+                    batched.maxDelayMicros()));
+        }
+        if (batchers.isEmpty()) {
+            return null;
+        }
+        return new BatchedInvocationHandler(targetClass, batchers);
+    }
+
+    /**
+     * 查找只有一个List（或其父类型）参数的public批量方法
+     * @param targetClass
+     * @param name
+     * @return
+     */
+    static Method findBulkMethod(Class<?> targetClass, String name) {
+        for (Method m : targetClass.getMethods()) {
+            if (m.getName().equals(name) && m.getParameterCount() == 1
+                    && m.getParameterTypes()[0].isAssignableFrom(List.class)) {
+                return m;
+            }
+        }
+        throw new AopConfigException(String.format("Bulk method %s(List) not found in class %s.",
+                name, targetClass.getName()));
+    }
+
+    static class BatchedInvocationHandler implements InvocationHandler {
+        static final MicroBatcher NONE = new MicroBatcher(null, null, 1, 0);
+
+        final Class<?> targetClass;
+        final Map<Method, MicroBatcher> batchers;
+
+        BatchedInvocationHandler(Class<?> targetClass, Map<Method, MicroBatcher> batchers) {
+            this.targetClass = targetClass;
+            this.batchers = new ConcurrentHashMap<>(batchers);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MicroBatcher batcher = lookupByMethod(this.batchers, this.targetClass, method, NONE);
+            if (batcher == NONE) {
+                return invokeTarget(proxy, method, args);
+            }
+            return batcher.submit(args[0]);
+        }
+    }
+}
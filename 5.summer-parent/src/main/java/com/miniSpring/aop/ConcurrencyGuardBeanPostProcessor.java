@@ -0,0 +1,133 @@
+package com.miniSpring.aop;
+
+import com.miniSpring.annotation.Bulkhead;
+import com.miniSpring.annotation.RateLimited;
+import com.miniSpring.exception.BulkheadFullException;
+import com.miniSpring.exception.RateLimitExceededException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * ClassName: ConcurrencyGuardBeanPostProcessor
+ * Description:
+ * 为@RateLimited和@Bulkhead创建Proxy：代理创建时为每个方法解析出对应的令牌桶/并发隔离，调用时先限流再隔离，
+ * 超出限制直接抛出RateLimitExceededException/BulkheadFullException
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 15:02
+ * @Version 1.0
+ */
+public class ConcurrencyGuardBeanPostProcessor extends MethodAnnotationProxyBeanPostProcessor {
+    //所有已创建的令牌桶和并发隔离，用于读取拒绝次数
+    final List<TokenBucketRateLimiter> rateLimiters = new CopyOnWriteArrayList<>();
+    final List<StripedBulkhead> bulkheads = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected InvocationHandler createInvocationHandler(Object bean, Class<?> targetClass, String beanName) {
+        //类上的注解对所有方法共用一个实例
+        RateLimited classRateLimited = targetClass.getAnnotation(RateLimited.class);
+        Bulkhead classBulkhead = targetClass.getAnnotation(Bulkhead.class);
+        TokenBucketRateLimiter classLimiter = classRateLimited == null ? null
+                : createRateLimiter(targetClass.getSimpleName(), classRateLimited);
+        StripedBulkhead classBulkheadInstance = classBulkhead == null ? null
+                : createBulkhead(targetClass.getSimpleName(), classBulkhead);
+
+        Map<Method, Guards> guards = new HashMap<>();
+        for (Method m : targetClass.getMethods()) {
+            if (m.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String name = targetClass.getSimpleName() + "." + m.getName();
+            RateLimited rl = m.getAnnotation(RateLimited.class);
+            Bulkhead bh = m.getAnnotation(Bulkhead.class);
+            TokenBucketRateLimiter limiter = rl != null ? createRateLimiter(name, rl) : classLimiter;
+            StripedBulkhead bulkhead = bh != null ? createBulkhead(name, bh) : classBulkheadInstance;
+            if (limiter != null || bulkhead != null) {
+                guards.put(m, new Guards(limiter, bulkhead));
+            }
+        }
+        if (guards.isEmpty()) {
+            return null;
+        }
+        return new GuardInvocationHandler(targetClass, guards);
+    }
+
+    TokenBucketRateLimiter createRateLimiter(String name, RateLimited rl) {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(name, rl.permitsPerSecond(), rl.burst());
+        this.rateLimiters.add(limiter);
+        return limiter;
+    }
+
+    StripedBulkhead createBulkhead(String name, Bulkhead bh) {
+        StripedBulkhead bulkhead = new StripedBulkhead(name, bh.maxConcurrent(), bh.maxWait());
+        this.bulkheads.add(bulkhead);
+        return bulkhead;
+    }
+
+    /**
+     * 返回所有令牌桶和并发隔离的拒绝次数，key为 类名.方法名（类上的注解为类名）
+     * @return
+     */
+    public Map<String, Long> getRejectedCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        this.rateLimiters.forEach(l -> counts.merge("rateLimited:" + l.getName(), l.getRejectedCount(), Long::sum));
+        this.bulkheads.forEach(b -> counts.merge("bulkhead:" + b.getName(), b.getRejectedCount(), Long::sum));
+        return counts;
+    }
+
+    public List<TokenBucketRateLimiter> getRateLimiters() {
+        return List.copyOf(this.rateLimiters);
+    }
+
+    public List<StripedBulkhead> getBulkheads() {
+        return List.copyOf(this.bulkheads);
+    }
+
+    record Guards(TokenBucketRateLimiter rateLimiter, StripedBulkhead bulkhead) {
+        static final Guards NONE = new Guards(null, null);
+    }
+
+    static class GuardInvocationHandler implements InvocationHandler {
+        final Class<?> targetClass;
+        //Method -> Guards，收到代理类的Method时会解析到原始类的Method后缓存
+        final Map<Method, Guards> guards;
+
+        GuardInvocationHandler(Class<?> targetClass, Map<Method, Guards> guards) {
+            this.targetClass = targetClass;
+            this.guards = new ConcurrentHashMap<>(guards);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Guards g = lookupByMethod(this.guards, this.targetClass, method, Guards.NONE);
+            if (g.rateLimiter != null && !g.rateLimiter.tryAcquire()) {
+                throw new RateLimitExceededException(String.format("Rate limit exceeded: %s", g.rateLimiter.getName()));
+            }
+            if (g.bulkhead == null) {
+                return invokeTarget(proxy, method, args);
+            }
+            int stripe;
+            try {
+                stripe = g.bulkhead.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BulkheadFullException(String.format("Interrupted while waiting for bulkhead: %s",
+                        g.bulkhead.getName()));
+            }
+            if (stripe < 0) {
+                throw new BulkheadFullException(String.format("Bulkhead is full: %s", g.bulkhead.getName()));
+            }
+            try {
+                return invokeTarget(proxy, method, args);
+            } finally {
+                g.bulkhead.release(stripe);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.miniSpring.aop;
+
+import com.miniSpring.context.BeanPostProcessor;
+import com.miniSpring.exception.BeansException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ClassName: MethodAnnotationProxyBeanPostProcessor
+ * Description:
+ * 与AnnotationProxyBeanPostProcessor不同，注解带有参数且可以标注在方法上（如@RateLimited），拦截器由子类根据Bean的原始类
+ * 直接创建，而不是从容器中按name获取
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 14:02
+ * @Version 1.0
+ */
+public abstract class MethodAnnotationProxyBeanPostProcessor implements BeanPostProcessor {
+    //存储代理前的原始bean
+    Map<String, Object> originBeans = new HashMap<>();
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        //bean可能已经被其他BeanPostProcessor代理过，注解需要在原始类上查找
+        Class<?> targetClass = ProxyResolver.getInstance().getTargetClass(bean.getClass());
+        InvocationHandler handler = createInvocationHandler(bean, targetClass, beanName);
+        if (handler == null) {
+            return bean;
+        }
+        Object proxy = ProxyResolver.getInstance().createProxy(bean, handler);
+        this.originBeans.put(beanName, bean);
+        return proxy;
+    }
+
+    @Override
+    public Object postProcessOnSetProperty(Object bean, String beanName) {
+        Object origin = this.originBeans.get(beanName);
+        return origin != null ? origin : bean;
+    }
+
+    /**
+     * 根据原始类上的注解创建拦截器
+     * @param bean 待代理的bean（可能已是代理）
+     * @param targetClass 原始类
+     * @param beanName
+     * @return 不需要代理时返回null
+     */
+    protected abstract InvocationHandler createInvocationHandler(Object bean, Class<?> targetClass, String beanName);
+
+    /**
+     * 从代理创建时解析好的 Method -> V 中查找当前调用对应的值；若收到的是代理类的Method，则解析到原始类的Method后
+     * 将结果缓存到map中，没有对应值时缓存none
+     * @param map 必须是线程安全的Map
+     * @param targetClass 原始类
+     * @param method 拦截器收到的Method
+     * @param none 表示"没有对应值"的占位对象
+     * @return
+     * @param <V>
+     */
+    protected static <V> V lookupByMethod(Map<Method, V> map, Class<?> targetClass, Method method, V none) {
+        V v = map.get(method);
+        if (v == null) {
+            v = map.computeIfAbsent(method, m -> {
+                Method target = resolveTargetMethod(targetClass, m);
+                V resolved = target == null ? null : map.get(target);
+                return resolved == null ? none : resolved;
+            });
+        }
+        return v;
+    }
+
+    /**
+     * 拦截器收到的Method可能是代理类中重写的方法，需要找到原始类中对应的public方法，找不到返回null
+     * @param targetClass
+     * @param method
+     * @return
+     */
+    protected static Method resolveTargetMethod(Class<?> targetClass, Method method) {
+        if (method.getDeclaringClass().isAssignableFrom(targetClass)) {
+            return method;
+        }
+        try {
+            return targetClass.getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 调用目标方法，抛出业务方法本身的异常而不是InvocationTargetException
+     * @param target
+     * @param method
+     * @param args
+     * @return
+     * @throws Throwable
+     */
+    protected static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.miniSpring.aop;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ClassName: MicroBatcher
+ * Description:
+ * 一个@Batched方法对应一个MicroBatcher。不使用后台线程：
+ *  - 没有其他调用者正在提交或等待结果时（无并发），开启新批次的调用者直接执行，不等待maxDelay
+ *  - 否则开启新批次的调用者（leader）最多等待maxDelay，超时后由它执行批量调用
+ *  - 若批次在此之前达到maxSize，则由凑满批次的调用者直接执行
+ *  - 其他调用者等待各自的CompletableFuture
+ * 是否有并发按进入submit时的调用者数量判断：几乎同时到达的第一个调用者可能已单独执行，之后的调用者才开始合并
+ * 锁只在加入批次时短暂持有，等待时不持有任何锁（也不使用synchronized），因此可以在虚拟线程上运行
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 16:20
+ * @Version 1.0
+ */
+public class MicroBatcher {
+    final Object target;
+    final Method bulkMethod;
+    //@Batched方法的返回类型，为基本类型时不能返回null
+    final Class<?> returnType;
+    final int maxSize;
+    final long maxDelayNanos;
+
+    final ReentrantLock lock = new ReentrantLock();
+    //当前正在收集的批次，为null表示下一个调用者开启新批次
+    List<Pending> current = null;
+    //正在submit中的调用者数量（包括等待结果和执行批量调用的）
+    final AtomicInteger active = new AtomicInteger();
+
+    public MicroBatcher(Object target, Method bulkMethod, int maxSize, long maxDelayMicros) {
+        this(target, bulkMethod, Object.class, maxSize, maxDelayMicros);
+    }
+
+    /**
+     * @param target 原始Bean
+     * @param bulkMethod 批量方法
+     * @param returnType @Batched方法的返回类型
+     * @param maxSize
+     * @param maxDelayMicros
+     */
+    public MicroBatcher(Object target, Method bulkMethod, Class<?> returnType, int maxSize, long maxDelayMicros) {
+        this.target = target;
+        this.bulkMethod = bulkMethod;
+        this.returnType = returnType;
+        this.maxSize = Math.max(1, maxSize);
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxDelayMicros));
+    }
+
+    /**
+     * 提交一个key，阻塞直到所在批次执行完毕，返回该key对应的结果
+     * @param key
+     * @return
+     * @throws Throwable 批量方法抛出的异常
+     */
+    public Object submit(Object key) throws Throwable {
+        final boolean contended = this.active.incrementAndGet() > 1;
+        try {
+            return doSubmit(key, contended);
+        } finally {
+            this.active.decrementAndGet();
+        }
+    }
+
+    Object doSubmit(Object key, boolean contended) throws Throwable {
+        final Pending p = new Pending(key, new CompletableFuture<>());
+        List<Pending> batch;
+        boolean leader = false;
+        List<Pending> full = null;
+        this.lock.lock();
+        try {
+            batch = this.current;
+            if (batch == null) {
+                batch = this.current = new ArrayList<>(Math.min(this.maxSize, 64));
+                leader = true;
+            }
+            batch.add(p);
+            //批次已满，或没有并发时不必等待其他调用者
+            if (batch.size() >= this.maxSize || (leader && !contended)) {
+                this.current = null;
+                full = batch;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        if (full != null) {
+            //批次已满或无并发，由当前线程执行
+            execute(full);
+        } else if (leader) {
+            boolean interrupted = false;
+            try {
+                p.future.get(this.maxDelayNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                //超时则由leader执行；异常在下面统一处理
+            } catch (InterruptedException e) {
+                //leader不能放弃批次，否则其他调用者会一直等待
+                interrupted = true;
+            }
+            List<Pending> expired = null;
+            this.lock.lock();
+            try {
+                if (this.current == batch) {
+                    this.current = null;
+                    expired = batch;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+            if (expired != null) {
+                execute(expired);
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            return p.future.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 以去重后的key调用批量方法，并将结果分发给每个调用者
+     * @param batch
+     */
+    void execute(List<Pending> batch) {
+        //相同key只查询一次
+        Map<Object, List<Pending>> byKey = new LinkedHashMap<>();
+        for (Pending p : batch) {
+            byKey.computeIfAbsent(p.key, k -> new ArrayList<>(1)).add(p);
+        }
+        List<Object> keys = new ArrayList<>(byKey.keySet());
+        try {
+            Object result;
+            try {
+                result = this.bulkMethod.invoke(this.target, keys);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Map<?, ?> map) {
+                byKey.forEach((key, ps) -> complete(ps, key, map.get(key)));
+            } else if (result instanceof List<?> list) {
+                if (list.size() != keys.size()) {
+                    throw new IllegalStateException(String.format("Bulk method %s returned %d results for %d keys.",
+                            this.bulkMethod.getName(), list.size(), keys.size()));
+                }
+                for (int i = 0; i < keys.size(); i++) {
+                    Object key = keys.get(i);
+                    complete(byKey.get(key), key, list.get(i));
+                }
+            } else {
+                throw new IllegalStateException(String.format("Bulk method %s must return List or Map.",
+                        this.bulkMethod.getName()));
+            }
+        } catch (Throwable t) {
+            batch.forEach(p -> p.future.completeExceptionally(t));
+        }
+    }
+
+    /**
+     * 将结果分发给同一个key的调用者；返回类型为基本类型时null无法拆箱，以异常结束
+     */
+    void complete(List<Pending> ps, Object key, Object value) {
+        if (value == null && this.returnType.isPrimitive()) {
+            IllegalStateException e = new IllegalStateException(String.format(
+                    "Bulk method %s returned null for key %s, but the batched method returns primitive type %s.",
+                    this.bulkMethod.getName(), key, this.returnType.getName()));
+            ps.forEach(p -> p.future.completeExceptionally(e));
+            return;
+        }
+        ps.forEach(p -> p.future.complete(value));
+    }
+
+    record Pending(Object key, CompletableFuture<Object> future) {
+    }
+}
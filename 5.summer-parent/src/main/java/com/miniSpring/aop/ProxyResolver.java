@@ -1,6 +1,10 @@
 package com.miniSpring.aop;
 
+import com.miniSpring.context.ApplicationContextUtils;
+import com.miniSpring.context.ConfigurableApplicationContext;
 import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.loading.ByteArrayClassLoader;
+import net.bytebuddy.dynamic.loading.InjectionClassLoader;
 import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
 import net.bytebuddy.implementation.InvocationHandlerAdapter;
 import net.bytebuddy.matcher.ElementMatchers;
@@ -9,6 +13,9 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * ClassName: ProxyResolver
@@ -22,20 +29,24 @@ public class ProxyResolver {
     final Logger logger = LoggerFactory.getLogger(getClass());
     //ByteBuddy实例
     final ByteBuddy byteBuddy = new ByteBuddy();
-    private static ProxyResolver INSTANCE = null;
+    //存储 目标类的ClassLoader -> 由本实例（即所属容器）持有的代理类ClassLoader，容器关闭时清空，使代理类可以随ClassLoader一起被卸载
+    final Map<ClassLoader, InjectionClassLoader> proxyClassLoaders = new HashMap<>();
+    //不在容器中使用时的默认实例，不会被释放
+    private static final ProxyResolver DEFAULT = new ProxyResolver();
 
     /**
-     * 懒汉单例模式？
+     * 返回当前容器持有的ProxyResolver，每个容器关闭时只释放自己生成的代理类ClassLoader；
+     * 不存在容器时返回默认实例
      * @return
      */
     public static ProxyResolver getInstance() {
-        if (INSTANCE == null) {
-            INSTANCE = new ProxyResolver();
+        if (ApplicationContextUtils.getApplicationContext() instanceof ConfigurableApplicationContext ctx) {
+            return ctx.getProxyResolver();
         }
-        return INSTANCE;
+        return DEFAULT;
     }
 
-    private ProxyResolver() {
+    public ProxyResolver() {
     }
 
     /**
@@ -65,8 +76,9 @@ public class ProxyResolver {
                         }))
                 //生成字节码
                 .make()
-                //加载字节码
-                .load(targetClass.getClassLoader()).getLoaded();
+                //加载字节码：注入到容器持有的ClassLoader中，而不是目标类的ClassLoader
+                .load(getProxyClassLoader(targetClass.getClassLoader()), InjectionClassLoader.Strategy.INSTANCE)
+                .getLoaded();
         //创建Proxy实例
         Object proxy;
         try {
@@ -78,4 +90,39 @@ public class ProxyResolver {
         }
         return (T) proxy;
     }
+
+    /**
+     * 获取用于加载代理类的ClassLoader，每个父ClassLoader对应一个，由容器持有；
+     * 若目标类本身就是代理类（多层代理），则直接复用其所在的ClassLoader
+     * @param parent 目标类的ClassLoader
+     * @return
+     */
+    synchronized InjectionClassLoader getProxyClassLoader(ClassLoader parent) {
+        if (parent instanceof InjectionClassLoader icl && this.proxyClassLoaders.containsValue(icl)) {
+            return icl;
+        }
+        return this.proxyClassLoaders.computeIfAbsent(parent,
+                cl -> new ByteArrayClassLoader(cl, false, Collections.emptyMap()));
+    }
+
+    /**
+     * 返回被代理的原始类：若clazz是本ProxyResolver生成的代理类（可能多层），则沿父类向上查找
+     * @param clazz
+     * @return
+     */
+    public synchronized Class<?> getTargetClass(Class<?> clazz) {
+        Class<?> target = clazz;
+        while (target.getClassLoader() instanceof InjectionClassLoader icl && this.proxyClassLoaders.containsValue(icl)) {
+            target = target.getSuperclass();
+        }
+        return target;
+    }
+
+    /**
+     * 所属容器关闭时调用，释放本实例持有的代理类ClassLoader的引用（不影响其他容器），代理实例不再被引用后，代理类即可被GC回收（释放Metaspace）
+     */
+    public synchronized void releaseProxyClassLoaders() {
+        logger.atDebug().log("Release {} proxy class loader(s).", this.proxyClassLoaders.size());
+        this.proxyClassLoaders.clear();
+    }
 }
@@ -0,0 +1,15 @@
+package com.miniSpring.aop;
+
+import com.miniSpring.annotation.SingleFlight;
+
+/**
+ * ClassName: SingleFlightBeanPostProcessor
+ * Description:
+ * 为@SingleFlight注解创建Proxy
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 17:32
+ * @Version 1.0
+ */
+public class SingleFlightBeanPostProcessor extends AnnotationProxyBeanPostProcessor<SingleFlight> {
+
+}
@@ -0,0 +1,81 @@
+package com.miniSpring.aop;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ClassName: SingleFlightInvocationHandler
+ * Description:
+ * @SingleFlight的默认拦截器：每个方法一个 参数 -> 正在执行的Future 的Map，第一个调用者真正执行方法，
+ * 同时到达的相同参数的调用者等待并共享它的结果或异常；执行结束后立即移除，不缓存结果
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 17:40
+ * @Version 1.0
+ */
+public class SingleFlightInvocationHandler implements InvocationHandler {
+    //Method -> (参数 -> 正在执行的调用)
+    final Map<Method, Map<ArgsKey, CompletableFuture<Object>>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        //无返回值或Object的方法（toString等）不合并
+        if (method.getReturnType() == void.class || method.getDeclaringClass() == Object.class) {
+            return MethodAnnotationProxyBeanPostProcessor.invokeTarget(proxy, method, args);
+        }
+        Map<ArgsKey, CompletableFuture<Object>> calls = this.inFlight.get(method);
+        if (calls == null) {
+            calls = this.inFlight.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        }
+        final ArgsKey key = new ArgsKey(args == null ? new Object[0] : args.clone());
+        final CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = calls.putIfAbsent(key, mine);
+        if (existing != null) {
+            //已有相同参数的调用在执行，等待其结果
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+        try {
+            Object r = MethodAnnotationProxyBeanPostProcessor.invokeTarget(proxy, method, args);
+            mine.complete(r);
+            return r;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            //先完成再移除，之后到达的调用会重新执行
+            calls.remove(key, mine);
+        }
+    }
+
+    /**
+     * 当前正在执行（被合并）的调用数
+     * @return
+     */
+    public int getInFlightCount() {
+        return this.inFlight.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * 按数组内容比较的参数key
+     * @param args
+     */
+    record ArgsKey(Object[] args) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArgsKey other && Arrays.deepEquals(this.args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.deepHashCode(this.args);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.miniSpring.aop;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ClassName: StripedBulkhead
+ * Description:
+ * 限制最大并发数：许可被分散到多个Semaphore（条带）中，线程优先从自己的条带获取，失败后再依次尝试其他条带，
+ * 都失败时在共享的Condition上最多等待maxWait，任意条带释放许可都会唤醒等待者重新尝试所有条带；
+ * 没有等待者时release不加锁，避免所有线程争用同一个Semaphore
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 14:48
+ * @Version 1.0
+ */
+public class StripedBulkhead {
+    final String name;
+    final int maxConcurrent;
+    final long maxWaitNanos;
+    final Semaphore[] stripes;
+    final LongAdder rejected = new LongAdder();
+    //等待许可的线程数，为0时release不需要唤醒
+    final AtomicInteger waiters = new AtomicInteger();
+    final ReentrantLock lock = new ReentrantLock();
+    final Condition permitReleased = this.lock.newCondition();
+
+    public StripedBulkhead(String name, int maxConcurrent, long maxWaitMillis) {
+        this(name, maxConcurrent, maxWaitMillis, Runtime.getRuntime().availableProcessors());
+    }
+
+    StripedBulkhead(String name, int maxConcurrent, long maxWaitMillis, int stripeCount) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + name);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxWaitMillis));
+        int n = Math.max(1, Math.min(maxConcurrent, stripeCount));
+        this.stripes = new Semaphore[n];
+        //许可平均分配，余数分给前面的条带
+        for (int i = 0; i < n; i++) {
+            this.stripes[i] = new Semaphore(maxConcurrent / n + (i < maxConcurrent % n ? 1 : 0));
+        }
+    }
+
+    /**
+     * 获取一个许可
+     * @return 获得许可的条带下标，需在release时传回；未获得许可返回-1并计入拒绝次数
+     * @throws InterruptedException 等待时被中断
+     */
+    public int acquire() throws InterruptedException {
+        final int home = (int) (Thread.currentThread().getId() % this.stripes.length);
+        int s = tryAcquireAny(home);
+        if (s >= 0) {
+            return s;
+        }
+        if (this.maxWaitNanos > 0) {
+            //先登记为等待者再重试，release看到等待者时会在锁内唤醒，不会丢失唤醒
+            this.waiters.incrementAndGet();
+            this.lock.lock();
+            try {
+                long nanos = this.maxWaitNanos;
+                while ((s = tryAcquireAny(home)) < 0 && nanos > 0) {
+                    nanos = this.permitReleased.awaitNanos(nanos);
+                }
+            } finally {
+                this.lock.unlock();
+                this.waiters.decrementAndGet();
+            }
+            if (s >= 0) {
+                return s;
+            }
+        }
+        this.rejected.increment();
+        return -1;
+    }
+
+    /**
+     * 从home开始依次尝试所有条带
+     * @param home
+     * @return 获得许可的条带下标，都没有许可时返回-1
+     */
+    int tryAcquireAny(int home) {
+        final int n = this.stripes.length;
+        for (int i = 0; i < n; i++) {
+            int s = (home + i) % n;
+            if (this.stripes[s].tryAcquire()) {
+                return s;
+            }
+        }
+        return -1;
+    }
+
+    public void release(int stripe) {
+        this.stripes[stripe].release();
+        if (this.waiters.get() > 0) {
+            this.lock.lock();
+            try {
+                this.permitReleased.signal();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前正在执行的调用数（近似值）
+     * @return
+     */
+    public int getActiveCount() {
+        int available = 0;
+        for (Semaphore s : this.stripes) {
+            available += s.availablePermits();
+        }
+        return this.maxConcurrent - available;
+    }
+
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+}
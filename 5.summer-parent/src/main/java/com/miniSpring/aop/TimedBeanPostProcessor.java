@@ -0,0 +1,15 @@
+package com.miniSpring.aop;
+
+import com.miniSpring.annotation.Timed;
+
+/**
+ * ClassName: TimedBeanPostProcessor
+ * Description:
+ * 为@Timed注解创建Proxy
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 11:05
+ * @Version 1.0
+ */
+public class TimedBeanPostProcessor extends AnnotationProxyBeanPostProcessor<Timed> {
+
+}
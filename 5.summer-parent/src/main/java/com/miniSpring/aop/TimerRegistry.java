@@ -0,0 +1,87 @@
+package com.miniSpring.aop;
+
+import com.miniSpring.metrics.HistogramSnapshot;
+import com.miniSpring.metrics.LatencyHistogram;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ClassName: TimerRegistry
+ * Description:
+ * @Timed的默认拦截器，同时也是耗时统计的注册表：每个被代理的方法对应一个LatencyHistogram，
+ * 通过getSnapshots()/getSnapshot()读取p50/p99/p999和吞吐量
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 11:10
+ * @Version 1.0
+ */
+public class TimerRegistry implements InvocationHandler {
+    //存储 Method -> 耗时直方图
+    final Map<Method, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        //首次调用时创建直方图，之后只有一次get，不分配对象
+        LatencyHistogram histogram = this.histograms.get(method);
+        if (histogram == null) {
+            histogram = this.histograms.computeIfAbsent(method, m -> new LatencyHistogram());
+        }
+        final long start = System.nanoTime();
+        try {
+            return method.invoke(proxy, args);
+        } catch (InvocationTargetException e) {
+            //抛出业务方法本身的异常
+            throw e.getCause();
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 返回所有方法的统计结果，key为 全类名.方法名(参数类型,...)，如 com.example.UserService.find(java.lang.String,int)
+     * @return
+     */
+    public Map<String, HistogramSnapshot> getSnapshots() {
+        Map<String, HistogramSnapshot> snapshots = new TreeMap<>();
+        this.histograms.forEach((method, histogram) -> snapshots.put(metricName(method), histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * 返回指定方法的统计结果，不存在则返回null
+     * @param metricName 全类名.方法名(参数类型,...)
+     * @return
+     */
+    public HistogramSnapshot getSnapshot(String metricName) {
+        for (Map.Entry<Method, LatencyHistogram> entry : this.histograms.entrySet()) {
+            if (metricName(entry.getKey()).equals(metricName)) {
+                return entry.getValue().snapshot();
+            }
+        }
+        return null;
+    }
+
+    public void reset() {
+        this.histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * 使用全类名和参数类型，避免重载方法或不同包下的同名类得到相同的名字
+     */
+    static String metricName(Method method) {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(method.getDeclaringClass().getName()).append('.').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(parameterTypes[i].getTypeName());
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.miniSpring.aop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ClassName: TokenBucketRateLimiter
+ * Description:
+ * 无锁令牌桶（GCRA实现）：只用一个AtomicLong记录"理论到达时间"，每次获取令牌将其后移一个间隔，
+ * 后移后超出当前时间的部分若大于桶容量则拒绝；获取失败时不等待
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 14:35
+ * @Version 1.0
+ */
+public class TokenBucketRateLimiter {
+    final String name;
+    //每个令牌的间隔（纳秒）
+    final long intervalNanos;
+    //允许超前的最大时间，即桶容量 * 间隔
+    final long burstNanos;
+    final AtomicLong theoreticalArrival;
+    final LongAdder rejected = new LongAdder();
+
+    public TokenBucketRateLimiter(String name, double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive: " + name);
+        }
+        this.name = name;
+        this.intervalNanos = Math.max(1L, Math.round(1_000_000_000.0 / permitsPerSecond));
+        int capacity = burst > 0 ? burst : Math.max(1, (int) permitsPerSecond);
+        this.burstNanos = this.intervalNanos * capacity;
+        //初始时令牌桶是满的
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试获取一个令牌
+     * @return 成功返回true，桶已空返回false并计入拒绝次数
+     */
+    public boolean tryAcquire() {
+        final long now = System.nanoTime();
+        for (;;) {
+            long tat = this.theoreticalArrival.get();
+            long next = Math.max(tat, now) + this.intervalNanos;
+            if (next - now > this.burstNanos) {
+                this.rejected.increment();
+                return false;
+            }
+            if (this.theoreticalArrival.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRejectedCount() {
+        return this.rejected.sum();
+    }
+}
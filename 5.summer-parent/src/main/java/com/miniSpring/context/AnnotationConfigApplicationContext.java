@@ -2,6 +2,7 @@ package com.miniSpring.context;
 
 import com.miniSpring.annotation.*;
 
+import com.miniSpring.aop.ProxyResolver;
 import com.miniSpring.exception.*;
 import com.miniSpring.io.PropertyResolver;
 import com.miniSpring.io.ResourceResolver;
@@ -32,6 +33,8 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
     protected final Map<String, BeanDefinition> beans;
     //用来解析Properties文件里的key-Value值
     protected final PropertyResolver propertyResolver;
+    //为本容器创建代理，持有代理类的ClassLoader
+    protected final ProxyResolver proxyResolver = new ProxyResolver();
 
     //存储BeanPostProcessor
     private List<BeanPostProcessor> beanPostProcessors = new ArrayList<>();
@@ -341,6 +344,16 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
         });
     }
 
+    @Override
+    public PropertyResolver getPropertyResolver() {
+        return this.propertyResolver;
+    }
+
+    @Override
+    public ProxyResolver getProxyResolver() {
+        return this.proxyResolver;
+    }
+
     /**
      * 创建一个Bean，但不进行字段和方法级别的注入。如果创建的Bean不是Configuration，则在构造方法中注入的依赖Bean会自动创建
      * @param def
@@ -547,8 +560,13 @@ public class AnnotationConfigApplicationContext implements ConfigurableApplicati
             callMethod(beanInstance, def.getDestroyMethod(), def.getDestroyMethodName());
         });
         this.beans.clear();
+        //释放代理类的ClassLoader，使本容器生成的代理类可以被卸载
+        this.proxyResolver.releaseProxyClassLoaders();
         logger.info("{} closed.", this.getClass().getName());
-        ApplicationContextUtils.setApplicationContext(null);
+        //之后创建的容器可能已替换当前容器，只清除自己
+        if (ApplicationContextUtils.getApplicationContext() == this) {
+            ApplicationContextUtils.setApplicationContext(null);
+        }
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.miniSpring.context;
 
+import com.miniSpring.aop.ProxyResolver;
+import com.miniSpring.io.PropertyResolver;
 import jakarta.annotation.Nullable;
 
 import java.util.List;
@@ -25,4 +27,16 @@ public interface ConfigurableApplicationContext extends ApplicationContext{
     BeanDefinition findBeanDefinition(String name, Class<?> requiredType);
 
     Object createBeanAsEarlySingleton(BeanDefinition def);
+
+    /**
+     * 返回创建该容器时使用的配置解析器，用于读取无法通过@Value注入的配置（如列表）
+     * @return
+     */
+    PropertyResolver getPropertyResolver();
+
+    /**
+     * 返回该容器持有的ProxyResolver，容器生成的代理类加载在其ClassLoader中，容器关闭时一起释放
+     * @return
+     */
+    ProxyResolver getProxyResolver();
 }
@@ -0,0 +1,18 @@
+package com.miniSpring.exception;
+
+/**
+ * ClassName: BulkheadFullException
+ * Description:
+ * 超过@Bulkhead限定的并发数，且在maxWait内未获得许可
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 14:22
+ * @Version 1.0
+ */
+public class BulkheadFullException extends InvocationRejectedException{
+    public BulkheadFullException() {
+    }
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
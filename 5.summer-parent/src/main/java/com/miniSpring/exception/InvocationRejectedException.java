@@ -0,0 +1,18 @@
+package com.miniSpring.exception;
+
+/**
+ * ClassName: InvocationRejectedException
+ * Description:
+ * 方法调用因限流或并发隔离被拒绝时抛出
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 14:20
+ * @Version 1.0
+ */
+public class InvocationRejectedException extends NestedRuntimeException{
+    public InvocationRejectedException() {
+    }
+
+    public InvocationRejectedException(String message) {
+        super(message);
+    }
+}
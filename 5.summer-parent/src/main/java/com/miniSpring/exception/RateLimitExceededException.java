@@ -0,0 +1,18 @@
+package com.miniSpring.exception;
+
+/**
+ * ClassName: RateLimitExceededException
+ * Description:
+ * 超过@RateLimited限定的速率
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 14:21
+ * @Version 1.0
+ */
+public class RateLimitExceededException extends InvocationRejectedException{
+    public RateLimitExceededException() {
+    }
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -186,6 +186,32 @@ public class PropertyResolver {
         return convert(targetType, value);
     }
 
+    /**
+     * 列表类型配置的元素个数：YAML中的列表展开为 key[0]、key[0].sub 形式，从0开始连续计数
+     * @param key 例如 miniSpring.datasource.replicas
+     * @return
+     */
+    public int getIndexedSize(String key) {
+        int n = 0;
+        while (containsIndexed(key + "[" + n + "]")) {
+            n++;
+        }
+        return n;
+    }
+
+    boolean containsIndexed(String indexedKey) {
+        if (this.properties.containsKey(indexedKey)) {
+            return true;
+        }
+        String prefix = indexedKey + ".";
+        for (String k : this.properties.keySet()) {
+            if (k.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * 将value转换到指定Class类型
      * @param clazz
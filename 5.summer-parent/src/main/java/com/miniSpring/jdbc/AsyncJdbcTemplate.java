@@ -0,0 +1,205 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.exception.DataAccessException;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * ClassName: AsyncJdbcTemplate
+ * Description:
+ * 在后台线程中调用JdbcTemplate，返回CompletableFuture，用于并行执行多个互不依赖的查询
+ *  - 同时执行的任务数由公平的Semaphore限制为maxConcurrency（一般为连接池的maximum-pool-size），
+ *    超出的任务按提交顺序等待，避免大量线程同时阻塞在连接池上
+ *  - 默认使用maxConcurrency个守护线程的线程池；也可以传入其他Executor（如虚拟线程的Executor），由Semaphore限制并发
+ *  - 取消Future时，若任务还未开始则不再执行，若正在执行则调用Statement.cancel()中止查询
+ *  - 任务在其他线程执行，不加入调用方的事务，每条语句使用自己的连接并自动提交
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 09:10
+ * @Version 1.0
+ */
+public class AsyncJdbcTemplate implements AutoCloseable {
+    final JdbcTemplate jdbcTemplate;
+    final Executor executor;
+    //由本类创建的线程池，close时关闭
+    final ExecutorService ownedExecutor;
+    final Semaphore permits;
+    final int maxConcurrency;
+
+    /**
+     * 使用maxConcurrency个守护线程的线程池
+     * @param jdbcTemplate
+     * @param maxConcurrency
+     */
+    public AsyncJdbcTemplate(JdbcTemplate jdbcTemplate, int maxConcurrency) {
+        this(jdbcTemplate, null, maxConcurrency);
+    }
+
+    /**
+     * @param jdbcTemplate
+     * @param executor 执行任务的Executor，为null时创建maxConcurrency个守护线程的线程池
+     * @param maxConcurrency 同时执行的任务数上限
+     */
+    public AsyncJdbcTemplate(JdbcTemplate jdbcTemplate, Executor executor, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive.");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+        if (executor == null) {
+            AtomicInteger index = new AtomicInteger();
+            this.ownedExecutor = Executors.newFixedThreadPool(maxConcurrency, r -> {
+                Thread t = new Thread(r, "jdbc-async-" + index.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            this.executor = this.ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+            this.executor = executor;
+        }
+    }
+
+    public <T> CompletableFuture<T> queryForObject(String sql, Class<T> clazz, Object... args) {
+        return submit(t -> t.queryForObject(sql, clazz, args));
+    }
+
+    public <T> CompletableFuture<T> queryForObject(String sql, RowMapper<T> rowMapper, Object... args) {
+        return submit(t -> t.queryForObject(sql, rowMapper, args));
+    }
+
+    public CompletableFuture<Number> queryForNumber(String sql, Object... args) {
+        return submit(t -> t.queryForNumber(sql, args));
+    }
+
+    public <T> CompletableFuture<List<T>> queryForList(String sql, Class<T> clazz, Object... args) {
+        return submit(t -> t.queryForList(sql, clazz, args));
+    }
+
+    public CompletableFuture<Integer> update(String sql, Object... args) {
+        return submit(t -> t.update(sql, args));
+    }
+
+    public CompletableFuture<int[][]> batchUpdate(String sql, List<Object[]> batchArgs) {
+        return submit(t -> t.batchUpdate(sql, batchArgs));
+    }
+
+    /**
+     * 在后台线程中用JdbcTemplate执行action
+     * @param action
+     * @return 取消时中止正在执行的语句
+     * @param <T>
+     */
+    public <T> CompletableFuture<T> submit(Function<JdbcTemplate, T> action) {
+        QueryFuture<T> future = new QueryFuture<>();
+        try {
+            this.executor.execute(() -> run(future, action));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    <T> void run(QueryFuture<T> future, Function<JdbcTemplate, T> action) {
+        if (future.isDone()) {
+            //已取消
+            return;
+        }
+        try {
+            this.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(new DataAccessException("Interrupted while waiting for async jdbc permit."));
+            return;
+        }
+        try {
+            if (future.isDone()) {
+                return;
+            }
+            JdbcTemplate.statementListener.set(future::setStatement);
+            future.complete(action.apply(this.jdbcTemplate));
+        } catch (Throwable e) {
+            //已取消时忽略Statement.cancel()引起的异常
+            future.completeExceptionally(e);
+        } finally {
+            JdbcTemplate.statementListener.remove();
+            future.setStatement(null);
+            this.permits.release();
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 正在执行的任务数
+     * @return
+     */
+    public int getActiveCount() {
+        return this.maxConcurrency - this.permits.availablePermits();
+    }
+
+    /**
+     * 等待执行的任务数（估计值，仅统计已在Semaphore上等待的任务）
+     * @return
+     */
+    public int getQueueLength() {
+        return this.permits.getQueueLength();
+    }
+
+    /**
+     * 关闭由本类创建的线程池，已提交的任务继续执行
+     */
+    @Override
+    public void close() {
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 记录正在执行的Statement，取消时调用Statement.cancel()
+     */
+    static class QueryFuture<T> extends CompletableFuture<T> {
+        Statement statement;
+
+        synchronized void setStatement(Statement statement) {
+            this.statement = statement;
+            if (statement != null && isCancelled()) {
+                cancelQuietly(statement);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                synchronized (this) {
+                    if (this.statement != null) {
+                        cancelQuietly(this.statement);
+                    }
+                }
+            }
+            return cancelled;
+        }
+
+        static void cancelQuietly(Statement statement) {
+            try {
+                statement.cancel();
+            } catch (SQLException | RuntimeException e) {
+                //语句可能已经执行完毕或关闭
+            }
+        }
+    }
+}
@@ -4,59 +4,131 @@ import com.miniSpring.exception.DataAccessException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
 
 /**
  * ClassName: BeanRowMapper
  * Description:
  * 封装每一列数据库查询结果的bean
+ *  - 同一个Class的BeanRowMapper通过of()缓存复用，反射只在创建时做一次
+ *  - 每种结果集形状（列名序列）只解析一次 列下标 -> setter 的映射（Plan），JdbcTemplate通过forResultSet为每个ResultSet
+ *    取得一次Plan，之后每一行按下标取值
+ *  - 按属性类型选择getLong/getInt/getDouble/getTimestamp等方法读取，基本类型属性的setter不经过装箱
+ *  - 没有public无参构造器时（如record），按构造器参数名映射列
+ *  - copy/copyList复制映射结果，供QueryResultCache在多个调用方之间共享缓存的bean
  * @Author Jeffer Chen
  * @Create 2024/4/29 10:03
  * @Version 1.0
  */
 public class BeanRowMapper<T> implements RowMapper<T>{
 
+    //按Class缓存BeanRowMapper，使用ClassValue使其可以随Class一起被卸载
+    static final ClassValue<BeanRowMapper<?>> CACHE = new ClassValue<>() {
+        @Override
+        protected BeanRowMapper<?> computeValue(Class<?> type) {
+            return new BeanRowMapper<>(type);
+        }
+    };
+
     final Logger logger = LoggerFactory.getLogger(getClass());
 
     Class<T> clazz;
-    Constructor<T> constructor;
-    Map<String, Field> fields = new HashMap<>();
-    Map<String, Method> methods = new HashMap<>();
+    //无参构造方法，类型已适配为 ()Object；为null表示使用构造器映射
+    MethodHandle constructor;
+    //属性名 -> setter，set方法优先于public字段
+    Map<String, ColumnSetter> setters = new HashMap<>();
+
+    //构造器映射：参数名、读取方法、列不存在时的默认值，以及适配为 (Object[])Object 的构造器
+    String[] paramNames;
+    ValueReader[] paramReaders;
+    Object[] paramDefaults;
+    MethodHandle spreadConstructor;
+
+    //列名序列 -> Plan
+    final Map<String, Plan> plans = new ConcurrentHashMap<>();
+    //复制bean时逐个复制的实例字段（包括父类）：[getter, setter]，第一次复制时解析；为NOT_COPYABLE表示无法复制
+    volatile MethodHandle[][] copyFields;
+    static final MethodHandle[][] NOT_COPYABLE = new MethodHandle[0][];
+
+    /**
+     * 获取clazz对应的BeanRowMapper（缓存）
+     * @param clazz
+     * @return
+     * @param <T>
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> BeanRowMapper<T> of(Class<T> clazz) {
+        return (BeanRowMapper<T>) CACHE.get(clazz);
+    }
 
     /**
-     * 构造器，传入要封装的目标类，获取其所有属性和set方法，并分别存入fields和methods Map中
+     * 构造器，传入要封装的目标类，获取其所有属性和set方法，并生成对应的setter；
+     * 若没有public无参构造器，则使用record的规范构造器或唯一的public构造器
      * @param clazz
      */
     public BeanRowMapper(Class<T> clazz) {
         this.clazz = clazz;
+        MethodHandles.Lookup lookup = lookup(clazz);
+        Constructor<T> defaultConstructor = null;
+        try {
+            defaultConstructor = clazz.getConstructor();
+        } catch (NoSuchMethodException e) {
+            //没有无参构造器，使用构造器映射
+        }
         try {
-            //必须有无参public构造器
-            this.constructor = clazz.getConstructor();
-        } catch (ReflectiveOperationException e) {
-            throw new DataAccessException(String.format("No public default constructor found for class %s when build " +
+            if (defaultConstructor != null) {
+                this.constructor = lookup.unreflectConstructor(defaultConstructor)
+                        .asType(MethodType.methodType(Object.class));
+            } else {
+                initConstructorMapping(lookup);
+                return;
+            }
+        } catch (IllegalAccessException e) {
+            throw new DataAccessException(String.format("Cannot access constructor of class %s when build " +
                     "BeanRowMapper." , clazz.getName()), e);
         }
         for (Field f : clazz.getFields()) {
             String name = f.getName();
-            this.fields.put(name, f);
+            this.setters.put(name, fieldSetter(lookup, f));
             logger.atDebug().log("Add row mapping: {} to field {}", name, name);
         }
-        //获取Setter方法，并将属性名和方法存入methods Map中
+        //获取Setter方法，并将属性名和setter存入setters Map中（覆盖同名字段）
         for (Method m : clazz.getMethods()) {
             Parameter[] ps = m.getParameters();
             if(ps.length == 1){
                 String name = m.getName();
                 if(name.length() >= 4 && name.startsWith("set")) {
                     String prop = Character.toLowerCase(name.charAt(3)) + name.substring(4);
-                    this.methods.put(prop, m);
+                    this.setters.put(prop, methodSetter(lookup, m));
                     logger.atDebug().log("Add row mapping: {} to {}({})", prop, name, ps[0].getType().getSimpleName());
                 }
             }
@@ -64,7 +136,62 @@ public class BeanRowMapper<T> implements RowMapper<T>{
     }
 
     /**
-     * 将结果集中的一行数据封装至目标类T
+     * record使用规范构造器（参数名即组件名），普通类使用唯一的public构造器（需要以-parameters编译保留参数名）
+     * @param lookup
+     * @throws IllegalAccessException
+     */
+    void initConstructorMapping(MethodHandles.Lookup lookup) throws IllegalAccessException {
+        Constructor<?> ctor;
+        String[] names;
+        if (this.clazz.isRecord()) {
+            RecordComponent[] components = this.clazz.getRecordComponents();
+            Class<?>[] types = new Class<?>[components.length];
+            names = new String[components.length];
+            for (int i = 0; i < components.length; i++) {
+                types[i] = components[i].getType();
+                names[i] = components[i].getName();
+            }
+            try {
+                ctor = this.clazz.getDeclaredConstructor(types);
+            } catch (NoSuchMethodException e) {
+                throw new DataAccessException(String.format("No canonical constructor found for record %s.",
+                        this.clazz.getName()), e);
+            }
+        } else {
+            Constructor<?>[] ctors = this.clazz.getConstructors();
+            if (ctors.length != 1) {
+                throw new DataAccessException(String.format("No public default constructor or unique public constructor " +
+                        "found for class %s when build BeanRowMapper.", this.clazz.getName()));
+            }
+            ctor = ctors[0];
+            Parameter[] ps = ctor.getParameters();
+            names = new String[ps.length];
+            for (int i = 0; i < ps.length; i++) {
+                if (!ps[i].isNamePresent()) {
+                    throw new DataAccessException(String.format("Constructor parameter names of class %s are not " +
+                            "available, compile with -parameters.", this.clazz.getName()));
+                }
+                names[i] = ps[i].getName();
+            }
+        }
+        Class<?>[] types = ctor.getParameterTypes();
+        this.paramNames = names;
+        this.paramReaders = new ValueReader[types.length];
+        this.paramDefaults = new Object[types.length];
+        for (int i = 0; i < types.length; i++) {
+            this.paramReaders[i] = readerFor(types[i]);
+            //基本类型参数的默认值
+            this.paramDefaults[i] = types[i].isPrimitive() ? Array.get(Array.newInstance(types[i], 1), 0) : null;
+            logger.atDebug().log("Add row mapping: {} to constructor parameter {}", names[i], i);
+        }
+        this.spreadConstructor = lookup.unreflectConstructor(ctor)
+                .asSpreader(Object[].class, types.length)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+    }
+
+    /**
+     * 将结果集中的一行数据封装至目标类T；每次调用都会读取ResultSetMetaData查找Plan，
+     * 映射多行时应先通过forResultSet取得绑定了Plan的RowMapper
      * @param rs
      * @param rowNum 这里传入rowNum是否有些多余？
      * @return
@@ -72,29 +199,359 @@ public class BeanRowMapper<T> implements RowMapper<T>{
      */
     @Override
     public T mapRow(ResultSet rs, int rowNum) throws SQLException {
-        T bean;
+        return mapRow(rs, resolvePlan(rs));
+    }
+
+    /**
+     * 为rs解析一次Plan，返回的RowMapper只能用于该ResultSet
+     * @param rs
+     * @return
+     * @throws SQLException
+     */
+    @Override
+    public RowMapper<T> forResultSet(ResultSet rs) throws SQLException {
+        final Plan plan = resolvePlan(rs);
+        return (r, rowNum) -> mapRow(r, plan);
+    }
+
+    T mapRow(ResultSet rs, Plan plan) throws SQLException {
         try {
-            bean = this.constructor.newInstance();
-            //获取ResultSet对象的列的数量、类型和属性
-            ResultSetMetaData meta = rs.getMetaData();
-            int columns = meta.getColumnCount();
-            //遍历每一列，寻找与列名相对应的set方法，若没有则寻找对应属性，并将对应数据值传入，没有对应则跳过
-            for (int i = 1; i <= columns; i++) {
-                String label = meta.getColumnLabel(i);
-                Method method = this.methods.get(label);
-                if(method != null) {
-                    method.invoke(bean, rs.getObject(label));
-                } else {
-                    Field field = this.fields.get(label);
-                    if(field != null) {
-                        field.set(bean, rs.getObject(label));
+            if (this.constructor == null) {
+                return mapRowByConstructor(rs, plan.paramColumns);
+            }
+            T bean = this.clazz.cast(this.constructor.invokeExact());
+            //按列下标取值，没有对应属性的列跳过
+            ColumnSetter[] setters = plan.setters;
+            for (int i = 0; i < setters.length; i++) {
+                ColumnSetter setter = setters[i];
+                if (setter != null) {
+                    setter.set(bean, rs, i + 1);
+                }
+            }
+            return bean;
+        } catch (SQLException | DataAccessException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DataAccessException(String.format("Could not map result set to class %s", this.clazz.getName()), e);
+        }
+    }
+
+    T mapRowByConstructor(ResultSet rs, int[] paramColumns) throws Throwable {
+        Object[] args = new Object[paramColumns.length];
+        for (int i = 0; i < paramColumns.length; i++) {
+            int column = paramColumns[i];
+            Object value = column > 0 ? this.paramReaders[i].read(rs, column) : null;
+            args[i] = value == null ? this.paramDefaults[i] : value;
+        }
+        return this.clazz.cast(this.spreadConstructor.invokeExact(args));
+    }
+
+    /**
+     * 获取ResultSet对应的Plan：按列名序列查找或新建
+     * @param rs
+     * @return
+     * @throws SQLException
+     */
+    Plan resolvePlan(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        String[] labels = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            labels[i] = meta.getColumnLabel(i + 1);
+        }
+        return this.plans.computeIfAbsent(String.join(",", labels), key -> createPlan(labels));
+    }
+
+    Plan createPlan(String[] labels) {
+        if (this.constructor == null) {
+            //构造器参数 -> 列下标（从1开始，0表示没有对应列）
+            int[] paramColumns = new int[this.paramNames.length];
+            for (int p = 0; p < this.paramNames.length; p++) {
+                for (int i = 0; i < labels.length; i++) {
+                    if (labels[i].equals(this.paramNames[p])) {
+                        paramColumns[p] = i + 1;
+                        break;
                     }
                 }
+            }
+            return new Plan(null, paramColumns);
+        }
+        ColumnSetter[] ss = new ColumnSetter[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            ss[i] = this.setters.get(labels[i]);
+        }
+        return new Plan(ss, null);
+    }
 
+    /**
+     * 映射结果能否通过copy复制：record不可变，直接共享；使用无参构造器的类需要所有实例字段都不是final且可访问
+     * @return
+     */
+    public boolean isCopyable() {
+        if (this.constructor == null) {
+            return this.clazz.isRecord();
+        }
+        return copyFields() != NOT_COPYABLE;
+    }
+
+    /**
+     * 复制一个映射结果：record直接返回，其他类新建实例后逐个复制字段（Date和byte[]复制一份，其他字段值共享）
+     * @param bean
+     * @return
+     * @throws DataAccessException 不可复制（见isCopyable）
+     */
+    public T copy(T bean) {
+        if (this.constructor == null && this.clazz.isRecord()) {
+            return bean;
+        }
+        MethodHandle[][] fields = this.constructor == null ? NOT_COPYABLE : copyFields();
+        if (fields == NOT_COPYABLE) {
+            throw new DataAccessException(String.format("Cannot copy instance of class %s.", this.clazz.getName()));
+        }
+        try {
+            Object copy = this.constructor.invokeExact();
+            for (MethodHandle[] field : fields) {
+                Object value = (Object) field[0].invokeExact((Object) bean);
+                field[1].invokeExact(copy, copyValue(value));
             }
-        } catch (ReflectiveOperationException e) {
-            throw new DataAccessException(String.format("Could not map result set to class %s", this.clazz.getName()), e);
+            return this.clazz.cast(copy);
+        } catch (Throwable e) {
+            throw new DataAccessException(String.format("Could not copy instance of class %s", this.clazz.getName()), e);
         }
-        return bean;
+    }
+
+    public List<T> copyList(List<T> list) {
+        List<T> copies = new ArrayList<>(list.size());
+        for (T bean : list) {
+            copies.add(bean == null ? null : copy(bean));
+        }
+        return copies;
+    }
+
+    static Object copyValue(Object value) {
+        if (value instanceof java.util.Date d) {
+            return d.clone();
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.clone();
+        }
+        return value;
+    }
+
+    MethodHandle[][] copyFields() {
+        MethodHandle[][] fields = this.copyFields;
+        if (fields == null) {
+            fields = this.copyFields = resolveCopyFields();
+        }
+        return fields;
+    }
+
+    MethodHandle[][] resolveCopyFields() {
+        List<MethodHandle[]> fields = new ArrayList<>();
+        MethodType getterType = MethodType.methodType(Object.class, Object.class);
+        MethodType setterType = MethodType.methodType(void.class, Object.class, Object.class);
+        for (Class<?> c = this.clazz; c != Object.class; c = c.getSuperclass()) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+                for (Field f : c.getDeclaredFields()) {
+                    int modifiers = f.getModifiers();
+                    if (Modifier.isStatic(modifiers)) {
+                        continue;
+                    }
+                    if (Modifier.isFinal(modifiers)) {
+                        logger.atDebug().log("Cannot copy {}: final field {}", this.clazz.getName(), f.getName());
+                        return NOT_COPYABLE;
+                    }
+                    fields.add(new MethodHandle[] { lookup.unreflectGetter(f).asType(getterType),
+                            lookup.unreflectSetter(f).asType(setterType) });
+                }
+            } catch (IllegalAccessException | SecurityException e) {
+                logger.atDebug().log("Cannot copy {}: {}", this.clazz.getName(), e.toString());
+                return NOT_COPYABLE;
+            }
+        }
+        return fields.toArray(new MethodHandle[0][]);
+    }
+
+    /**
+     * 优先使用目标类所在位置的Lookup，使生成的setter与目标类在同一个ClassLoader中
+     * @param clazz
+     * @return
+     */
+    static MethodHandles.Lookup lookup(Class<?> clazz) {
+        try {
+            return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+        } catch (IllegalAccessException | SecurityException e) {
+            return MethodHandles.lookup();
+        }
+    }
+
+    /**
+     * 通过LambdaMetafactory将setXxx方法生成为函数式接口：long/int/double属性分别使用ObjLongConsumer/ObjIntConsumer/
+     * ObjDoubleConsumer，其他类型使用BiConsumer；失败时退回到MethodHandle
+     */
+    @SuppressWarnings("unchecked")
+    ColumnSetter methodSetter(MethodHandles.Lookup lookup, Method m) {
+        final Class<?> type = m.getParameterTypes()[0];
+        final MethodHandle target;
+        try {
+            target = lookup.unreflect(m);
+        } catch (IllegalAccessException e) {
+            throw new DataAccessException(String.format("Cannot access %s.%s", this.clazz.getName(), m.getName()), e);
+        }
+        try {
+            if (type == long.class) {
+                ObjLongConsumer<Object> c = (ObjLongConsumer<Object>) metafactory(lookup, target, ObjLongConsumer.class, long.class, long.class);
+                return (bean, rs, column) -> c.accept(bean, rs.getLong(column));
+            }
+            if (type == int.class) {
+                ObjIntConsumer<Object> c = (ObjIntConsumer<Object>) metafactory(lookup, target, ObjIntConsumer.class, int.class, int.class);
+                return (bean, rs, column) -> c.accept(bean, rs.getInt(column));
+            }
+            if (type == double.class) {
+                ObjDoubleConsumer<Object> c = (ObjDoubleConsumer<Object>) metafactory(lookup, target, ObjDoubleConsumer.class, double.class, double.class);
+                return (bean, rs, column) -> c.accept(bean, rs.getDouble(column));
+            }
+            if (!type.isPrimitive()) {
+                BiConsumer<Object, Object> c = (BiConsumer<Object, Object>) metafactory(lookup, target, BiConsumer.class, Object.class, type);
+                ValueReader reader = readerFor(type);
+                return (bean, rs, column) -> c.accept(bean, reader.read(rs, column));
+            }
+        } catch (Throwable e) {
+            logger.atDebug().log("Use MethodHandle for {}.{}: {}", this.clazz.getSimpleName(), m.getName(), e.toString());
+        }
+        return handleSetter(target, type);
+    }
+
+    ColumnSetter fieldSetter(MethodHandles.Lookup lookup, Field f) {
+        try {
+            return handleSetter(lookup.unreflectSetter(f), f.getType());
+        } catch (IllegalAccessException e) {
+            throw new DataAccessException(String.format("Cannot access %s.%s", this.clazz.getName(), f.getName()), e);
+        }
+    }
+
+    /**
+     * 生成实现samType的setter：(Object, samParam)void -> (Bean, implParam)void
+     */
+    Object metafactory(MethodHandles.Lookup lookup, MethodHandle target, Class<?> samType, Class<?> samParam,
+                       Class<?> implParam) throws Throwable {
+        CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                MethodType.methodType(samType),
+                MethodType.methodType(void.class, Object.class, samParam),
+                target,
+                MethodType.methodType(void.class, this.clazz, implParam));
+        return site.getTarget().invoke();
+    }
+
+    /**
+     * 使用MethodHandle写入：基本类型按精确类型invokeExact，不装箱
+     * @param setter (Bean, X)void
+     * @param type 属性类型
+     * @return
+     */
+    static ColumnSetter handleSetter(MethodHandle setter, Class<?> type) {
+        final MethodHandle h = setter.asType(MethodType.methodType(void.class, Object.class, type));
+        if (type == long.class) {
+            return (bean, rs, column) -> { h.invokeExact(bean, rs.getLong(column)); };
+        } else if (type == int.class) {
+            return (bean, rs, column) -> { h.invokeExact(bean, rs.getInt(column)); };
+        } else if (type == double.class) {
+            return (bean, rs, column) -> { h.invokeExact(bean, rs.getDouble(column)); };
+        } else if (type == float.class) {
+            return (bean, rs, column) -> { h.invokeExact(bean, rs.getFloat(column)); };
+        } else if (type == short.class) {
+            return (bean, rs, column) -> { h.invokeExact(bean, rs.getShort(column)); };
+        } else if (type == byte.class) {
+            return (bean, rs, column) -> { h.invokeExact(bean, rs.getByte(column)); };
+        } else if (type == boolean.class) {
+            return (bean, rs, column) -> { h.invokeExact(bean, rs.getBoolean(column)); };
+        } else if (type == char.class) {
+            return (bean, rs, column) -> {
+                String s = rs.getString(column);
+                if (s != null && !s.isEmpty()) {
+                    h.invokeExact(bean, s.charAt(0));
+                }
+            };
+        }
+        final MethodHandle o = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        final ValueReader reader = readerFor(type);
+        return (bean, rs, column) -> { o.invokeExact(bean, reader.read(rs, column)); };
+    }
+
+    /**
+     * 按目标类型选择ResultSet的读取方法，SQL NULL返回null
+     * @param type
+     * @return
+     */
+    static ValueReader readerFor(Class<?> type) {
+        if (type == String.class) {
+            return ResultSet::getString;
+        } else if (type == Long.class || type == long.class) {
+            return (rs, column) -> { long v = rs.getLong(column); return rs.wasNull() ? null : v; };
+        } else if (type == Integer.class || type == int.class) {
+            return (rs, column) -> { int v = rs.getInt(column); return rs.wasNull() ? null : v; };
+        } else if (type == Double.class || type == double.class) {
+            return (rs, column) -> { double v = rs.getDouble(column); return rs.wasNull() ? null : v; };
+        } else if (type == Float.class || type == float.class) {
+            return (rs, column) -> { float v = rs.getFloat(column); return rs.wasNull() ? null : v; };
+        } else if (type == Short.class || type == short.class) {
+            return (rs, column) -> { short v = rs.getShort(column); return rs.wasNull() ? null : v; };
+        } else if (type == Byte.class || type == byte.class) {
+            return (rs, column) -> { byte v = rs.getByte(column); return rs.wasNull() ? null : v; };
+        } else if (type == Boolean.class || type == boolean.class) {
+            return (rs, column) -> { boolean v = rs.getBoolean(column); return rs.wasNull() ? null : v; };
+        } else if (type == BigDecimal.class) {
+            return ResultSet::getBigDecimal;
+        } else if (type == byte[].class) {
+            return ResultSet::getBytes;
+        } else if (type == Instant.class) {
+            return (rs, column) -> { Timestamp ts = rs.getTimestamp(column); return ts == null ? null : ts.toInstant(); };
+        } else if (type == LocalDateTime.class) {
+            return (rs, column) -> { Timestamp ts = rs.getTimestamp(column); return ts == null ? null : ts.toLocalDateTime(); };
+        } else if (type == LocalDate.class) {
+            return (rs, column) -> { java.sql.Date d = rs.getDate(column); return d == null ? null : d.toLocalDate(); };
+        } else if (type == LocalTime.class) {
+            return (rs, column) -> { java.sql.Time t = rs.getTime(column); return t == null ? null : t.toLocalTime(); };
+        } else if (type == Timestamp.class || type == java.util.Date.class) {
+            return ResultSet::getTimestamp;
+        } else if (type.isEnum()) {
+            return (rs, column) -> {
+                String s = rs.getString(column);
+                return s == null ? null : enumValue(type, s);
+            };
+        }
+        //其他类型：getObject的结果类型匹配则直接使用，否则交给驱动转换
+        return (rs, column) -> {
+            Object v = rs.getObject(column);
+            return v == null || type.isInstance(v) ? v : rs.getObject(column, type);
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object enumValue(Class<?> type, String name) {
+        return Enum.valueOf((Class) type, name);
+    }
+
+    /**
+     * 从ResultSet的某一列读取值并写入bean
+     */
+    @FunctionalInterface
+    interface ColumnSetter {
+        void set(Object bean, ResultSet rs, int column) throws Throwable;
+    }
+
+    /**
+     * 从ResultSet的某一列读取指定类型的值
+     */
+    @FunctionalInterface
+    interface ValueReader {
+        Object read(ResultSet rs, int column) throws SQLException;
+    }
+
+    /**
+     * 一种结果集形状的映射方式：setter映射时setters[i]为第i+1列的setter，构造器映射时paramColumns[p]为第p个参数对应的列
+     */
+    record Plan(ColumnSetter[] setters, int[] paramColumns) {
     }
 }
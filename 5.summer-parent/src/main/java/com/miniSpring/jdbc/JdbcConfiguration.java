@@ -4,6 +4,11 @@ import com.miniSpring.annotation.Autowired;
 import com.miniSpring.annotation.Bean;
 import com.miniSpring.annotation.Configuration;
 import com.miniSpring.annotation.Value;
+import com.miniSpring.context.ApplicationContextUtils;
+import com.miniSpring.context.ConfigurableApplicationContext;
+import com.miniSpring.io.PropertyResolver;
+import com.miniSpring.jdbc.entity.EntityTemplate;
+import com.miniSpring.jdbc.namedparam.NamedParameterJdbcTemplate;
 import com.miniSpring.jdbc.tx.DataSourceTransactionManager;
 import com.miniSpring.jdbc.tx.PlatformTransactionManager;
 import com.miniSpring.jdbc.tx.TransactionalBeanPostProcessor;
@@ -11,6 +16,9 @@ import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * ClassName: JdbcConfiguration
@@ -22,15 +30,36 @@ import javax.sql.DataSource;
  *          driver-class-name: org.sqlite.JDBC
  *          username: sa
  *          password:
+ *          batch-size: 1000 （可选，batchUpdate每批条数）
+ *          fetch-size: 0 （可选，查询时每次拉取的行数）
+ *          max-rows: 0 （可选，查询最多返回的行数）
+ *          statement-cache-size: 32 （可选，事务连接上缓存的PreparedStatement数量，0表示不缓存）
+ *          parsed-sql-cache-size: 256 （可选，NamedParameterJdbcTemplate缓存的SQL解析结果数量）
+ *          replicas: （可选，只读库列表，未配置的项沿用主库的配置）
+ *            - url: jdbc:mysql://replica1/db
+ *            - url: jdbc:mysql://replica2/db
+ *              username: ro
+ *          replica-selection: round-robin （可选，round-robin或least-loaded）
+ *          sticky-after-write: 1000 （可选，写操作后多少毫秒内读操作仍走主库）
+ *          track-connection-state: false （可选，在本地记录连接的autoCommit等状态，省去重复的设置调用；开启后dataSource为StateTrackingDataSource）
+ *          metrics-enabled: false （可选，统计每个SQL的耗时、行数，获取连接的等待时间和事务持续时间，见JdbcMetrics）
+ *          slow-query-threshold: 0 （可选，慢查询阈值（毫秒），0表示不记录慢查询）
+ *          slow-query-bind-sample-rate: 1.0 （可选，慢查询日志附带绑定参数的比例）
+ *          query-cache-size: 0 （可选，queryForObject/queryForList结果缓存的条目数，0表示不缓存，见QueryResultCache）
+ *          query-cache-ttl: 60000 （可选，查询结果缓存的有效期（毫秒））
+ *          query-cache-tables: （可选，逗号分隔的允许缓存的表，为空表示所有表）
+ *          identity-map-enabled: true （可选，事务中按主键重复查询@Table实体时返回同一个实例，见IdentityMap）
+ *          async-max-concurrency: 0 （可选，AsyncJdbcTemplate同时执行的任务数，0表示与maximum-pool-size相同）
  * @Author Jeffer Chen
  * @Create 2024/4/28 17:21
  * @Version 1.0
  */
 @Configuration
 public class JdbcConfiguration {
+    static final String REPLICAS = "miniSpring.datasource.replicas";
 
     /**
-     * 从配置文件中读取数据库配置信息，创建HikariCP支持的DataSource
+     * 从配置文件中读取数据库配置信息，创建HikariCP支持的DataSource；配置了replicas时返回读写分离的ReadWriteRoutingDataSource
      * @param url
      * @param username
      * @param password
@@ -38,6 +67,8 @@ public class JdbcConfiguration {
      * @param maximumPoolSize
      * @param minimumPoolSize
      * @param connTimeout
+     * @param replicaSelection 只读库选择策略：round-robin或least-loaded
+     * @param stickyAfterWrite 写操作后多少毫秒内读操作仍走主库
      * @return
      */
     @Bean(destroyMethod = "close") //这里的destroyMethod执行流程是怎样的？  答：调用HikariDataSource的close()方法
@@ -49,25 +80,110 @@ public class JdbcConfiguration {
             @Value("${miniSpring.datasource.driver-class-name:}") String driver,
             @Value("${miniSpring.datasource.maximum-pool-size:20}") int maximumPoolSize,
             @Value("${miniSpring.datasource.minimum-pool-size:1}") int minimumPoolSize,
-            @Value("${miniSpring.datasource.connection-timeout:30000}") int connTimeout
+            @Value("${miniSpring.datasource.connection-timeout:30000}") int connTimeout,
+            @Value("${miniSpring.datasource.replica-selection:round-robin}") String replicaSelection,
+            @Value("${miniSpring.datasource.sticky-after-write:1000}") long stickyAfterWrite,
+            @Value("${miniSpring.datasource.track-connection-state:false}") boolean trackState
     ) {
+        DataSource primary = createDataSource(url, username, password, driver, maximumPoolSize, minimumPoolSize,
+                connTimeout, false, trackState);
+        //列表配置无法通过@Value注入，从PropertyResolver中读取 replicas[i].xxx
+        PropertyResolver pr = ((ConfigurableApplicationContext) ApplicationContextUtils.getRequiredApplicationContext())
+                .getPropertyResolver();
+        int n = pr.getIndexedSize(REPLICAS);
+        if (n == 0) {
+            return primary;
+        }
+        List<DataSource> replicas = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String prefix = REPLICAS + "[" + i + "].";
+            //未配置的项沿用主库的配置
+            replicas.add(createDataSource(
+                    pr.getRequiredProperty(prefix + "url"),
+                    pr.getProperty(prefix + "username", username),
+                    pr.getProperty(prefix + "password", password),
+                    pr.getProperty(prefix + "driver-class-name", driver),
+                    pr.getProperty(prefix + "maximum-pool-size", int.class, maximumPoolSize),
+                    pr.getProperty(prefix + "minimum-pool-size", int.class, minimumPoolSize),
+                    pr.getProperty(prefix + "connection-timeout", int.class, connTimeout),
+                    true, trackState));
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas, ReadWriteRoutingDataSource.Selection.of(replicaSelection),
+                stickyAfterWrite);
+    }
+
+    /**
+     * 创建HikariCP连接池；trackState为true时包装为StateTrackingDataSource，省去不改变连接状态的setAutoCommit等调用
+     */
+    static DataSource createDataSource(String url, String username, String password, String driver,
+                                       int maximumPoolSize, int minimumPoolSize, int connTimeout, boolean readOnly,
+                                       boolean trackState) {
         HikariConfig config = new HikariConfig();
         config.setAutoCommit(false);
         config.setJdbcUrl(url);
         config.setUsername(username);
         config.setPassword(password);
-        if(driver != null) {
+        if(driver != null && !driver.isEmpty()) {
             config.setDriverClassName(driver);
         }
         config.setMaximumPoolSize(maximumPoolSize);
         config.setMinimumIdle(minimumPoolSize);
         config.setConnectionTimeout(connTimeout);
-        return new HikariDataSource(config);
+        config.setReadOnly(readOnly);
+        HikariDataSource ds = new HikariDataSource(config);
+        //HikariCP归还连接时会把autoCommit、readOnly恢复为上面配置的值
+        return trackState ? new StateTrackingDataSource(ds, false, readOnly) : ds;
+    }
+
+    @Bean
+    JdbcMetrics jdbcMetrics(@Value("${miniSpring.datasource.metrics-enabled:false}") boolean enabled,
+                            @Value("${miniSpring.datasource.slow-query-threshold:0}") long slowQueryThreshold,
+                            @Value("${miniSpring.datasource.slow-query-bind-sample-rate:1.0}") double bindSampleRate) {
+        return new JdbcMetrics(enabled, slowQueryThreshold, bindSampleRate);
+    }
+
+    @Bean
+    JdbcTemplate jdbcTemplate(@Autowired DataSource dataSource,
+                              @Autowired JdbcMetrics jdbcMetrics,
+                              @Value("${miniSpring.datasource.batch-size:1000}") int batchSize,
+                              @Value("${miniSpring.datasource.fetch-size:0}") int fetchSize,
+                              @Value("${miniSpring.datasource.max-rows:0}") int maxRows,
+                              @Value("${miniSpring.datasource.statement-cache-size:32}") int statementCacheSize,
+                              @Value("${miniSpring.datasource.query-cache-size:0}") int queryCacheSize,
+                              @Value("${miniSpring.datasource.query-cache-ttl:60000}") long queryCacheTtl,
+                              @Value("${miniSpring.datasource.query-cache-tables:}") String queryCacheTables,
+                              @Value("${miniSpring.datasource.identity-map-enabled:true}") boolean identityMapEnabled) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setBatchSize(batchSize);
+        jdbcTemplate.setFetchSize(fetchSize);
+        jdbcTemplate.setMaxRows(maxRows);
+        jdbcTemplate.setStatementCacheSize(statementCacheSize);
+        jdbcTemplate.setMetrics(jdbcMetrics);
+        jdbcTemplate.setIdentityMapEnabled(identityMapEnabled);
+        if (queryCacheSize > 0) {
+            jdbcTemplate.setQueryCache(new QueryResultCache(queryCacheSize, queryCacheTtl,
+                    Arrays.asList(queryCacheTables.split(","))));
+        }
+        return jdbcTemplate;
+    }
+
+    @Bean(destroyMethod = "close")
+    AsyncJdbcTemplate asyncJdbcTemplate(@Autowired JdbcTemplate jdbcTemplate,
+                                        @Value("${miniSpring.datasource.maximum-pool-size:20}") int maximumPoolSize,
+                                        @Value("${miniSpring.datasource.async-max-concurrency:0}") int maxConcurrency) {
+        //未配置时与连接池大小一致
+        return new AsyncJdbcTemplate(jdbcTemplate, maxConcurrency > 0 ? maxConcurrency : maximumPoolSize);
+    }
+
+    @Bean
+    NamedParameterJdbcTemplate namedParameterJdbcTemplate(@Autowired JdbcTemplate jdbcTemplate,
+                                                          @Value("${miniSpring.datasource.parsed-sql-cache-size:256}") int cacheLimit) {
+        return new NamedParameterJdbcTemplate(jdbcTemplate, cacheLimit);
     }
 
     @Bean
-    JdbcTemplate jdbcTemplate(@Autowired DataSource dataSource) {
-        return new JdbcTemplate(dataSource);
+    EntityTemplate entityTemplate(@Autowired JdbcTemplate jdbcTemplate) {
+        return new EntityTemplate(jdbcTemplate);
     }
 
     @Bean
@@ -76,7 +192,10 @@ public class JdbcConfiguration {
     }
 
     @Bean
-    PlatformTransactionManager platformTransactionManager(@Autowired DataSource dataSource) {
-        return new DataSourceTransactionManager(dataSource);
+    PlatformTransactionManager platformTransactionManager(@Autowired DataSource dataSource,
+                                                          @Autowired JdbcMetrics jdbcMetrics) {
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.setMetrics(jdbcMetrics);
+        return transactionManager;
     }
 }
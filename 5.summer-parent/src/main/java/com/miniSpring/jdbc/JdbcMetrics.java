@@ -0,0 +1,241 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.metrics.HistogramSnapshot;
+import com.miniSpring.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ClassName: JdbcMetrics
+ * Description:
+ * JdbcTemplate和DataSourceTransactionManager的统计：
+ *  - 每个SQL模板的执行耗时直方图、执行次数、失败次数、返回（或影响）的行数；IN (?, ?, ...) 的展开长度和多余空白会被归一化
+ *  - 获取连接的等待时间、事务持续时间（只统计实际获取了连接的事务）以及提交/回滚次数
+ *  - 慢查询日志：超过阈值的SQL以WARN输出，按采样率附带（截断后的）绑定参数
+ * 未开启时JdbcTemplate和事务管理器持有的JdbcMetrics为null，只多一次判空
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 23:05
+ * @Version 1.0
+ */
+public class JdbcMetrics {
+    //最多统计的SQL模板数量，超出后归入OTHER
+    static final int MAX_TEMPLATES = 256;
+    static final String OTHER = "(other)";
+    //慢查询日志中最多输出的参数个数和每个参数的最大长度
+    static final int MAX_LOGGED_BINDS = 20;
+    static final int MAX_BIND_LENGTH = 64;
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final boolean histogramsEnabled;
+    //0表示不记录慢查询
+    final long slowQueryNanos;
+    final double bindSampleRate;
+
+    //原始SQL -> 统计，多个原始SQL可能对应同一个归一化的模板
+    final Map<String, SqlStats> bySql = new ConcurrentHashMap<>();
+    //归一化的SQL模板 -> 统计
+    final Map<String, SqlStats> byTemplate = new ConcurrentHashMap<>();
+    final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    final LatencyHistogram transactions = new LatencyHistogram();
+    final LongAdder commits = new LongAdder();
+    final LongAdder rollbacks = new LongAdder();
+    final LongAdder slowQueries = new LongAdder();
+
+    /**
+     * @param histogramsEnabled 是否记录直方图和计数
+     * @param slowQueryThresholdMillis 慢查询阈值（毫秒），0表示不记录慢查询
+     * @param bindSampleRate 慢查询日志附带绑定参数的比例，取值[0, 1]
+     */
+    public JdbcMetrics(boolean histogramsEnabled, long slowQueryThresholdMillis, double bindSampleRate) {
+        this.histogramsEnabled = histogramsEnabled;
+        this.slowQueryNanos = Math.max(0, slowQueryThresholdMillis) * 1_000_000L;
+        this.bindSampleRate = Math.max(0.0, Math.min(1.0, bindSampleRate));
+    }
+
+    /**
+     * 是否需要计时（开启了直方图或慢查询日志）
+     * @return
+     */
+    public boolean isEnabled() {
+        return this.histogramsEnabled || this.slowQueryNanos > 0;
+    }
+
+    /**
+     * 记录一次SQL执行
+     * @param sql
+     * @param args 绑定参数，未知时为null
+     * @param nanos 耗时
+     * @param rows 返回或影响的行数，未知时为负数
+     * @param success
+     */
+    public void recordQuery(String sql, Object[] args, long nanos, long rows, boolean success) {
+        if (this.histogramsEnabled) {
+            SqlStats stats = statsFor(sql);
+            stats.latency.record(nanos);
+            if (success) {
+                if (rows > 0) {
+                    stats.rows.add(rows);
+                }
+            } else {
+                stats.errors.increment();
+            }
+        }
+        if (this.slowQueryNanos > 0 && nanos >= this.slowQueryNanos) {
+            this.slowQueries.increment();
+            if (this.bindSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < this.bindSampleRate) {
+                logger.warn("slow query ({} ms): {} binds={}", nanos / 1_000_000, sql, formatBinds(args));
+            } else {
+                logger.warn("slow query ({} ms): {}", nanos / 1_000_000, sql);
+            }
+        }
+    }
+
+    public void recordConnectionAcquire(long nanos) {
+        if (this.histogramsEnabled) {
+            this.connectionAcquire.record(nanos);
+        }
+    }
+
+    public void recordTransaction(long nanos, boolean committed) {
+        if (this.histogramsEnabled) {
+            this.transactions.record(nanos);
+            (committed ? this.commits : this.rollbacks).increment();
+        }
+    }
+
+    SqlStats statsFor(String sql) {
+        SqlStats stats = this.bySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        String template = normalize(sql);
+        stats = this.byTemplate.get(template);
+        if (stats == null) {
+            if (this.byTemplate.size() >= MAX_TEMPLATES) {
+                template = OTHER;
+            }
+            stats = this.byTemplate.computeIfAbsent(template, t -> new SqlStats());
+        }
+        //原始SQL的别名也需要有上限（如IN列表长度各不相同时）
+        if (this.bySql.size() < MAX_TEMPLATES * 4) {
+            this.bySql.putIfAbsent(sql, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * 合并连续空白，并将 ?, ?, ... 归一化为 ?...，使IN列表长度不同的SQL归入同一个模板
+     * @param sql
+     * @return
+     */
+    static String normalize(String sql) {
+        StringBuilder sb = new StringBuilder(sql.length());
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = sb.length() > 0;
+                continue;
+            }
+            if (space) {
+                sb.append(' ');
+                space = false;
+            }
+            sb.append(c);
+        }
+        return sb.toString().replaceAll("\\?(\\s*,\\s*\\?)+", "?...");
+    }
+
+    static String formatBinds(Object[] args) {
+        if (args == null) {
+            return "n/a";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            if (i == MAX_LOGGED_BINDS) {
+                sb.append("... (").append(args.length).append(" total)");
+                break;
+            }
+            Object arg = args[i];
+            String s = arg == null ? "null" : arg instanceof byte[] b ? "byte[" + b.length + "]" : arg.toString();
+            if (s.length() > MAX_BIND_LENGTH) {
+                s = s.substring(0, MAX_BIND_LENGTH) + "...";
+            }
+            sb.append(arg instanceof CharSequence ? "'" + s + "'" : s);
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * 返回每个SQL模板的统计
+     * @return
+     */
+    public Map<String, SqlSnapshot> getSqlSnapshots() {
+        Map<String, SqlSnapshot> snapshots = new TreeMap<>();
+        this.byTemplate.forEach((sql, stats) -> snapshots.put(sql, stats.snapshot()));
+        return snapshots;
+    }
+
+    public HistogramSnapshot getConnectionAcquireSnapshot() {
+        return this.connectionAcquire.snapshot();
+    }
+
+    public HistogramSnapshot getTransactionSnapshot() {
+        return this.transactions.snapshot();
+    }
+
+    public long getCommitCount() {
+        return this.commits.sum();
+    }
+
+    public long getRollbackCount() {
+        return this.rollbacks.sum();
+    }
+
+    public long getSlowQueryCount() {
+        return this.slowQueries.sum();
+    }
+
+    /**
+     * 清空所有统计
+     */
+    public void reset() {
+        this.bySql.clear();
+        this.byTemplate.clear();
+        this.connectionAcquire.reset();
+        this.transactions.reset();
+        this.commits.reset();
+        this.rollbacks.reset();
+        this.slowQueries.reset();
+    }
+
+    static class SqlStats {
+        //SQL模板可能很多，每个直方图只用一个recorder
+        final LatencyHistogram latency = new LatencyHistogram(1);
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        SqlSnapshot snapshot() {
+            return new SqlSnapshot(this.latency.snapshot(), this.rows.sum(), this.errors.sum());
+        }
+    }
+
+    /**
+     * 一个SQL模板的统计结果
+     * @param latency 执行耗时，count即执行次数
+     * @param rows 返回或影响的总行数
+     * @param errors 失败次数
+     */
+    public record SqlSnapshot(HistogramSnapshot latency, long rows, long errors) {
+    }
+}
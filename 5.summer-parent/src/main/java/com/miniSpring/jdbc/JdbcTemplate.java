@@ -1,13 +1,34 @@
 package com.miniSpring.jdbc;
 
+import com.miniSpring.annotation.Table;
 import com.miniSpring.exception.DataAccessException;
+import com.miniSpring.jdbc.entity.EntityMetadata;
+import com.miniSpring.jdbc.entity.IdentityMap;
+import com.miniSpring.jdbc.tx.DeferredRowCount;
 import com.miniSpring.jdbc.tx.TransactionalUtils;
+import com.miniSpring.jdbc.tx.WriteBehindQueue;
+import jakarta.annotation.Nullable;
 
 import javax.sql.DataSource;
 import javax.xml.crypto.Data;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * ClassName: JdbcTemplate
@@ -18,7 +39,31 @@ import java.util.List;
  * @Version 1.0
  */
 public class JdbcTemplate {
+    //批量操作时每次executeBatch的默认条数
+    static final int DEFAULT_BATCH_SIZE = 1000;
+    //事务连接上缓存的PreparedStatement数量
+    static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+    //改写为多行INSERT时一条语句的参数个数上限（多数驱动的上限不低于32767）
+    static final int MAX_STATEMENT_PARAMETERS = 32767;
+
     final DataSource dataSource;
+    int batchSize = DEFAULT_BATCH_SIZE;
+    //查询语句的参数，0表示使用驱动默认值
+    int fetchSize = 0;
+    int maxRows = 0;
+    //查询语句的游标类型，默认只向前、只读
+    int resultSetType = ResultSet.TYPE_FORWARD_ONLY;
+    int resultSetConcurrency = ResultSet.CONCUR_READ_ONLY;
+    //0表示不缓存PreparedStatement
+    int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+    //为null时不统计
+    JdbcMetrics metrics;
+    //为null时不缓存查询结果
+    QueryResultCache queryCache;
+    //事务中按主键查询@Table实体时使用IdentityMap
+    boolean identityMapEnabled = true;
+    //当前线程上执行的PreparedStatement的监听器，AsyncJdbcTemplate用它在Future取消时调用Statement.cancel()
+    static final ThreadLocal<Consumer<Statement>> statementListener = new ThreadLocal<>();
 
     public JdbcTemplate(DataSource dataSource) {
         this.dataSource = dataSource;
@@ -29,6 +74,16 @@ public class JdbcTemplate {
     }
 
     public <T> T queryForObject(String sql, Class<T> clazz, Object... args) throws DataAccessException{
+        if (this.identityMapEnabled && args != null && args.length == 1 && clazz.isAnnotationPresent(Table.class)) {
+            //事务中按主键重复查询同一实体时返回同一个实例
+            IdentityMap identityMap = IdentityMap.current();
+            if (identityMap != null) {
+                EntityMetadata<T> meta = EntityMetadata.of(clazz);
+                if (meta.isIdLookup(sql)) {
+                    return identityMap.get(meta, args[0], () -> queryForObject(sql, BeanRowMapper.of(clazz), args));
+                }
+            }
+        }
         if (clazz == String.class) {
             return (T) queryForObject(sql, StringRowMapper.instance, args);
         }
@@ -38,7 +93,7 @@ public class JdbcTemplate {
         if (Number.class.isAssignableFrom(clazz) || clazz.isPrimitive()) {
             return (T) queryForObject(sql, NumberRowMapper.instance, args);
         }
-        return queryForObject(sql, new BeanRowMapper<>(clazz), args);
+        return queryForObject(sql, BeanRowMapper.of(clazz), args);
     }
 
     /**
@@ -51,12 +106,21 @@ public class JdbcTemplate {
      * @throws DataAccessException
      */
     public <T> T queryForObject(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
-        return execute(
+        final QueryResultCache queryCache = this.queryCache;
+        if (queryCache != null) {
+            return queryCache.query(sql, args, rowMapper, () -> doQueryForObject(sql, rowMapper, args),
+                    copierOf(rowMapper));
+        }
+        return doQueryForObject(sql, rowMapper, args);
+    }
+
+    <T> T doQueryForObject(String sql, RowMapper<T> rowMapper, Object[] args) {
+        return executeQuery(
                 //参数1：PreparedStatementCreator函数式接口的实现（不用考虑Connection，交由execute方法处理，
                 //该实现将sql字段和args拼接为PreparedStatement
-                preparedStatementCreator(sql, args),
+                queryStatementCreator(sql, args),
                 //参数2：PreparedStatementCallback函数式接口的实现，该实现返回查询语句的查询结果（若不是1条结果则报错）
-                (PreparedStatement ps) -> {
+                timed(sql, args, (PreparedStatement ps) -> {
                     T t = null;
                     try (ResultSet rs = ps.executeQuery()) {
                         while (rs.next()) {
@@ -71,7 +135,7 @@ public class JdbcTemplate {
                         throw new DataAccessException("Empty result set.");
                     }
                     return t;
-                });
+                }, t -> 1));
     }
 
     /**
@@ -84,26 +148,466 @@ public class JdbcTemplate {
      * @throws DataAccessException
      */
     public <T> List<T> queryForList(String sql, Class<T> clazz, Object... args) throws DataAccessException {
-        return queryForList(sql, new BeanRowMapper<>(clazz), args);
+        return queryForList(sql, BeanRowMapper.of(clazz), args);
     }
 
     public <T> List<T> queryForList(String sql, BeanRowMapper<T> rowMapper, Object[] args) throws DataAccessException{
-        return execute(
+        final QueryResultCache queryCache = this.queryCache;
+        if (queryCache != null) {
+            //缓存中保存副本，每次返回新的List和bean；不可复制的bean不缓存
+            return queryCache.query(sql, args, rowMapper, () -> doQueryForList(sql, rowMapper, args),
+                    rowMapper.isCopyable() ? rowMapper::copyList : null);
+        }
+        return doQueryForList(sql, rowMapper, args);
+    }
+
+    /**
+     * 按RowMapper将每一行封装为对象，行号从1开始；BeanRowMapper走queryForList(sql, BeanRowMapper, args)（可使用查询结果缓存）
+     * @param sql
+     * @param rowMapper
+     * @param args
+     * @return
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> List<T> queryForList(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
+        if (rowMapper instanceof BeanRowMapper<T> beanRowMapper) {
+            return queryForList(sql, beanRowMapper, args);
+        }
+        return query(sql, (ResultSet rs) -> {
+            List<T> list = new ArrayList<>();
+            RowMapper<T> mapper = rowMapper.forResultSet(rs);
+            int rowNum = 0;
+            while (rs.next()) {
+                list.add(mapper.mapRow(rs, ++rowNum));
+            }
+            return list;
+        }, List::size, args);
+    }
+
+    /**
+     * 可复制的BeanRowMapper返回其复制方法，其他RowMapper返回null（只缓存不可变的结果）
+     */
+    @Nullable
+    static <T> UnaryOperator<T> copierOf(RowMapper<T> rowMapper) {
+        if (rowMapper instanceof BeanRowMapper<T> beanRowMapper && beanRowMapper.isCopyable()) {
+            return beanRowMapper::copy;
+        }
+        return null;
+    }
+
+    <T> List<T> doQueryForList(String sql, BeanRowMapper<T> rowMapper, Object[] args) {
+        return executeQuery(
                 //参数1：PreparedStatementCreator函数式接口的实现（不用考虑Connection，交由execute方法处理，
                 //该实现将sql字段和args拼接为PreparedStatement
-                preparedStatementCreator(sql, args),
+                queryStatementCreator(sql, args),
                 //参数2：PreparedStatementCallback函数式接口的实现，该实现返回查询语句的查询结果list
                 //此时该方法返回的是List<T>,则execute方法返回的也是List<T>
-                (PreparedStatement ps) -> {
+                timed(sql, args, (PreparedStatement ps) -> {
                     List<T> list = new ArrayList<>();
                     try (ResultSet rs = ps.executeQuery()) {
+                        //每个ResultSet只解析一次列映射
+                        RowMapper<T> mapper = rowMapper.forResultSet(rs);
                         while (rs.next()) {
                             //将每一行结果都封装为目标类对象
-                            list.add(rowMapper.mapRow(rs, rs.getRow()));
+                            list.add(mapper.mapRow(rs, rs.getRow()));
                         }
                     }
                     return list;
-                });
+                }, List::size));
+    }
+
+    /**
+     * 查询数据，由ResultSetExtractor处理整个结果集
+     * @param sql
+     * @param rse
+     * @param args
+     * @return
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> T query(String sql, ResultSetExtractor<T> rse, Object... args) throws DataAccessException {
+        //行数未知
+        return query(sql, rse, r -> -1, args);
+    }
+
+    private <T> T query(String sql, ResultSetExtractor<T> rse, ToLongFunction<T> rows, Object[] args) {
+        return executeQuery(queryStatementCreator(sql, args),
+                timed(sql, args, (PreparedStatement ps) -> {
+                    try (ResultSet rs = ps.executeQuery()) {
+                        return rse.extractData(rs);
+                    }
+                }, rows));
+    }
+
+    /**
+     * 查询数据，每一行调用一次RowCallbackHandler，不保存结果；
+     * 与query(ResultSetExtractor)使用不同的方法名，避免传入lambda时无法确定重载
+     * @param sql
+     * @param rch
+     * @param args
+     * @throws DataAccessException
+     */
+    public void queryForEachRow(String sql, RowCallbackHandler rch, Object... args) throws DataAccessException {
+        query(sql, (ResultSet rs) -> {
+            long n = 0;
+            while (rs.next()) {
+                rch.processRow(rs);
+                n++;
+            }
+            return n;
+        }, Long::longValue, args);
+    }
+
+    /**
+     * 查询数据并返回惰性的Stream，每次从ResultSet中拉取一行映射为T，不会把结果全部放入内存；
+     * 必须在使用后关闭Stream（推荐try-with-resources），关闭时释放ResultSet、PreparedStatement和Connection（不在事务中时）
+     * @param sql
+     * @param rowMapper
+     * @param args
+     * @return
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> Stream<T> queryForStream(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
+        final Cursor cursor = openCursor(sql, args);
+        final ResultSet resultSet = cursor.resultSet;
+        class RowSpliterator extends Spliterators.AbstractSpliterator<T> {
+            RowMapper<T> mapper;
+
+            RowSpliterator() {
+                super(Long.MAX_VALUE, Spliterator.ORDERED);
+            }
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    if (this.mapper == null) {
+                        this.mapper = rowMapper.forResultSet(resultSet);
+                    }
+                    action.accept(this.mapper.mapRow(resultSet, ++cursor.rowNum));
+                    return true;
+                } catch (SQLException e) {
+                    throw new DataAccessException(e);
+                }
+            }
+        }
+        return StreamSupport.stream(new RowSpliterator(), false).onClose(cursor::close);
+    }
+
+    /**
+     * 查询第一列为long的惰性LongStream，NULL读取为0；与queryForStream一样必须在使用后关闭
+     * @param sql
+     * @param args
+     * @return
+     * @throws DataAccessException
+     */
+    public LongStream queryForLongStream(String sql, Object... args) throws DataAccessException {
+        final Cursor cursor = openCursor(sql, args);
+        final ResultSet resultSet = cursor.resultSet;
+        return StreamSupport.longStream(new Spliterators.AbstractLongSpliterator(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(LongConsumer action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    cursor.rowNum++;
+                    action.accept(resultSet.getLong(1));
+                    return true;
+                } catch (SQLException e) {
+                    throw new DataAccessException(e);
+                }
+            }
+        }, false).onClose(cursor::close);
+    }
+
+    /**
+     * 查询第一列为int的惰性IntStream，NULL读取为0；与queryForStream一样必须在使用后关闭
+     * @param sql
+     * @param args
+     * @return
+     * @throws DataAccessException
+     */
+    public IntStream queryForIntStream(String sql, Object... args) throws DataAccessException {
+        final Cursor cursor = openCursor(sql, args);
+        final ResultSet resultSet = cursor.resultSet;
+        return StreamSupport.intStream(new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(IntConsumer action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    cursor.rowNum++;
+                    action.accept(resultSet.getInt(1));
+                    return true;
+                } catch (SQLException e) {
+                    throw new DataAccessException(e);
+                }
+            }
+        }, false).onClose(cursor::close);
+    }
+
+    /**
+     * 查询第一列为double的惰性DoubleStream，NULL读取为0；与queryForStream一样必须在使用后关闭
+     * @param sql
+     * @param args
+     * @return
+     * @throws DataAccessException
+     */
+    public DoubleStream queryForDoubleStream(String sql, Object... args) throws DataAccessException {
+        final Cursor cursor = openCursor(sql, args);
+        final ResultSet resultSet = cursor.resultSet;
+        return StreamSupport.doubleStream(new Spliterators.AbstractDoubleSpliterator(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(DoubleConsumer action) {
+                try {
+                    if (!resultSet.next()) {
+                        return false;
+                    }
+                    cursor.rowNum++;
+                    action.accept(resultSet.getDouble(1));
+                    return true;
+                } catch (SQLException e) {
+                    throw new DataAccessException(e);
+                }
+            }
+        }, false).onClose(cursor::close);
+    }
+
+    /**
+     * 按key分页遍历大表，返回惰性的Stream；每页执行
+     * SELECT * FROM (sql) keyset_page WHERE key > ? ORDER BY key LIMIT ?，
+     * 不使用OFFSET，每页的代价与页码无关
+     * @param sql 基础查询，不能包含ORDER BY和LIMIT，结果中必须包含keyColumn
+     * @param keyColumn 唯一、非NULL且可排序的列名（结果集中的列名），遇到NULL时抛出DataAccessException
+     * @param pageSize 每页行数
+     * @param rowMapper
+     * @param args 基础查询的参数
+     * @return 使用后应关闭，以取消还未执行的预取
+     * @param <T>
+     */
+    public <T> Stream<T> keysetIterate(String sql, String keyColumn, int pageSize, RowMapper<T> rowMapper,
+                                       Object... args) throws DataAccessException {
+        return keysetIterate(sql, keyColumn, pageSize, rowMapper, null, args);
+    }
+
+    /**
+     * 按key分页遍历大表，prefetchExecutor不为null时在后台预取下一页；
+     * 在事务中时不预取（预取线程不在事务中），所有页都使用事务连接
+     * @param sql 基础查询，不能包含ORDER BY和LIMIT，结果中必须包含keyColumn
+     * @param keyColumn 唯一、非NULL且可排序的列名（结果集中的列名），遇到NULL时抛出DataAccessException
+     * @param pageSize 每页行数
+     * @param rowMapper
+     * @param prefetchExecutor 预取下一页的Executor，为null时不预取
+     * @param args 基础查询的参数
+     * @return 使用后应关闭，以取消还未执行的预取
+     * @param <T>
+     */
+    public <T> Stream<T> keysetIterate(String sql, String keyColumn, int pageSize, RowMapper<T> rowMapper,
+                                       @Nullable Executor prefetchExecutor, Object... args) throws DataAccessException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive.");
+        }
+        final String base = "SELECT * FROM (" + sql + ") keyset_page";
+        final String firstSql = base + " ORDER BY " + keyColumn + " LIMIT ?";
+        final String nextSql = base + " WHERE " + keyColumn + " > ? ORDER BY " + keyColumn + " LIMIT ?";
+        final Object[] baseArgs = args == null ? new Object[0] : args;
+        KeysetIterator<T> iterator = new KeysetIterator<>(pageSize, (Object lastKey) -> {
+            Object[] pageArgs = Arrays.copyOf(baseArgs, baseArgs.length + (lastKey == null ? 1 : 2));
+            if (lastKey != null) {
+                pageArgs[baseArgs.length] = lastKey;
+            }
+            pageArgs[pageArgs.length - 1] = pageSize;
+            String pageSql = lastKey == null ? firstSql : nextSql;
+            return executeQuery(queryStatementCreator(pageSql, pageArgs),
+                    timed(pageSql, pageArgs, (PreparedStatement ps) -> {
+                        List<T> rows = new ArrayList<>(pageSize);
+                        Object key = null;
+                        try (ResultSet rs = ps.executeQuery()) {
+                            RowMapper<T> mapper = rowMapper.forResultSet(rs);
+                            while (rs.next()) {
+                                rows.add(mapper.mapRow(rs, rows.size() + 1));
+                                key = rs.getObject(keyColumn);
+                                if (key == null) {
+                                    //NULL无法作为下一页的起点，且不同数据库中NULL的排序位置不同
+                                    throw new DataAccessException(String.format(
+                                            "Keyset column %s must not be NULL: %s", keyColumn, sql));
+                                }
+                            }
+                        }
+                        return new KeysetIterator.Page<>(rows, key);
+                    }, page -> page.rows().size()));
+        }, TransactionalUtils.isTransactionActive() ? null : prefetchExecutor);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(iterator::close);
+    }
+
+    /**
+     * 打开游标：在事务中则使用事务连接，否则获取只读连接；关闭Cursor时释放ResultSet、PreparedStatement和自己获取的Connection
+     */
+    private Cursor openCursor(String sql, Object[] args) {
+        //在事务中则使用事务连接，关闭时不关闭该连接
+        final Connection current = TransactionalUtils.getCurrentConnection();
+        Connection con = current;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        final JdbcMetrics metrics = this.metrics;
+        long start = 0;
+        try {
+            if (con == null) {
+                con = getConnection(true);
+                if (!con.getAutoCommit()) {
+                    con.setAutoCommit(true);
+                }
+            }
+            //关闭时会关闭PreparedStatement，因此不使用缓存
+            ps = con.prepareStatement(sql, this.resultSetType, this.resultSetConcurrency);
+            applyQuerySettings(ps);
+            bindArgs(ps, args);
+            if (metrics != null) {
+                start = System.nanoTime();
+            }
+            rs = ps.executeQuery();
+        } catch (SQLException e) {
+            if (metrics != null && start != 0) {
+                metrics.recordQuery(sql, args, System.nanoTime() - start, -1, false);
+            }
+            DataAccessException dae = new DataAccessException(e);
+            closeQuietly(rs, ps, current == null ? con : null, dae);
+            throw dae;
+        }
+        //只统计executeQuery的耗时，行数在关闭时记录
+        return new Cursor(sql, args, rs, ps, current == null ? con : null, metrics,
+                metrics == null ? 0 : System.nanoTime() - start);
+    }
+
+    /**
+     * queryForStream等惰性查询打开的游标
+     */
+    final class Cursor {
+        final String sql;
+        final Object[] args;
+        final ResultSet resultSet;
+        final PreparedStatement statement;
+        //不在事务中时自己获取的连接，关闭时一起关闭
+        final Connection ownedConnection;
+        final JdbcMetrics metrics;
+        final long queryNanos;
+        //已读取的行数
+        int rowNum = 0;
+
+        Cursor(String sql, Object[] args, ResultSet resultSet, PreparedStatement statement, Connection ownedConnection,
+               JdbcMetrics metrics, long queryNanos) {
+            this.sql = sql;
+            this.args = args;
+            this.resultSet = resultSet;
+            this.statement = statement;
+            this.ownedConnection = ownedConnection;
+            this.metrics = metrics;
+            this.queryNanos = queryNanos;
+        }
+
+        void close() {
+            if (this.metrics != null) {
+                this.metrics.recordQuery(this.sql, this.args, this.queryNanos, this.rowNum, true);
+            }
+            DataAccessException dae = closeQuietly(this.resultSet, this.statement, this.ownedConnection, null);
+            if (dae != null) {
+                throw dae;
+            }
+        }
+    }
+
+    /**
+     * 查询第一列，按rs.getLong(1)读取到long[]中，不为每个值创建Long对象；NULL读取为0
+     * @param sql
+     * @param args
+     * @return
+     * @throws DataAccessException
+     */
+    public long[] queryForLongArray(String sql, Object... args) throws DataAccessException {
+        return executeQuery(queryStatementCreator(sql, args),
+                timed(sql, args, (PreparedStatement ps) -> {
+                    long[] buffer = new long[initialCapacity()];
+                    int n = 0;
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (n == buffer.length) {
+                                buffer = Arrays.copyOf(buffer, grow(n));
+                            }
+                            buffer[n++] = rs.getLong(1);
+                        }
+                    }
+                    return n == buffer.length ? buffer : Arrays.copyOf(buffer, n);
+                }, a -> a.length));
+    }
+
+    /**
+     * 查询第一列，按rs.getInt(1)读取到int[]中；NULL读取为0
+     * @param sql
+     * @param args
+     * @return
+     * @throws DataAccessException
+     */
+    public int[] queryForIntArray(String sql, Object... args) throws DataAccessException {
+        return executeQuery(queryStatementCreator(sql, args),
+                timed(sql, args, (PreparedStatement ps) -> {
+                    int[] buffer = new int[initialCapacity()];
+                    int n = 0;
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (n == buffer.length) {
+                                buffer = Arrays.copyOf(buffer, grow(n));
+                            }
+                            buffer[n++] = rs.getInt(1);
+                        }
+                    }
+                    return n == buffer.length ? buffer : Arrays.copyOf(buffer, n);
+                }, a -> a.length));
+    }
+
+    /**
+     * 查询第一列，按rs.getDouble(1)读取到double[]中；NULL读取为0
+     * @param sql
+     * @param args
+     * @return
+     * @throws DataAccessException
+     */
+    public double[] queryForDoubleArray(String sql, Object... args) throws DataAccessException {
+        return executeQuery(queryStatementCreator(sql, args),
+                timed(sql, args, (PreparedStatement ps) -> {
+                    double[] buffer = new double[initialCapacity()];
+                    int n = 0;
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            if (n == buffer.length) {
+                                buffer = Arrays.copyOf(buffer, grow(n));
+                            }
+                            buffer[n++] = rs.getDouble(1);
+                        }
+                    }
+                    return n == buffer.length ? buffer : Arrays.copyOf(buffer, n);
+                }, a -> a.length));
+    }
+
+    /**
+     * 基本类型数组的初始容量：设置了maxRows时按maxRows分配（不超过64K），否则从64开始按1.5倍扩容
+     */
+    int initialCapacity() {
+        return this.maxRows > 0 ? Math.min(this.maxRows, 1 << 16) : 64;
+    }
+
+    static int grow(int length) {
+        int newLength = length + (length >> 1) + 1;
+        if (newLength < 0) {
+            throw new DataAccessException("Result too large for an array.");
+        }
+        return newLength;
     }
 
     /**
@@ -114,14 +618,37 @@ public class JdbcTemplate {
      * @throws DataAccessException
      */
     public Number updateAndReturnGeneratedKey(String sql, Object... args) throws DataAccessException {
-        return execute(
+        return doUpdateAndReturnGeneratedKey(sql, args, args, this::bindArgs);
+    }
+
+    /**
+     * 插入一条数据，参数由setter从item绑定，并返回该数据的自增key值；
+     * 与updateAndReturnGeneratedKey(sql, args...)使用不同的方法名，避免 (sql, x, null) 被解析为本方法
+     * @param sql
+     * @param item
+     * @param setter
+     * @return
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> Number updateItemAndReturnGeneratedKey(String sql, T item, ParameterizedSetter<T> setter)
+            throws DataAccessException {
+        return doUpdateAndReturnGeneratedKey(sql, null, item, setter);
+    }
+
+    /**
+     * @param logArgs 用于慢查询日志的参数，未知时为null
+     */
+    private <T> Number doUpdateAndReturnGeneratedKey(String sql, @Nullable Object[] logArgs, T item,
+                                                     ParameterizedSetter<T> setter) {
+        Number key = execute(
                 (Connection con) -> {
                     //这里与其他方法的区别是多传入了一个参数，要求返回自增Key的值
-                    PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-                    bindArgs(ps, args);
+                    PreparedStatement ps = prepareStatement(con, sql, Statement.RETURN_GENERATED_KEYS);
+                    setter.setValues(ps, item);
                     return ps;
                 },
-                (PreparedStatement ps) -> {
+                timed(sql, logArgs, (PreparedStatement ps) -> {
                     //这里返回的是update语句影响的行数，对于需要反馈自增key的情况，应该只插入1条
                     int n = ps.executeUpdate();
                     if(n == 0) {
@@ -137,7 +664,200 @@ public class JdbcTemplate {
                         }
                     }
                     throw new DataAccessException("Should not reach here.");
-                });
+                }, k -> 1), false);
+        invalidateQueryCache(sql);
+        return key;
+    }
+
+    /**
+     * 批量插入，按顺序返回每行的自增key；使用JDBC批处理，每batchSize条执行一次executeBatch
+     * @param sql
+     * @param batchArgs 每个元素是一行的参数
+     * @return
+     * @throws DataAccessException 驱动返回的key数量与行数不一致
+     */
+    public long[] batchInsertReturningKeys(String sql, List<Object[]> batchArgs) throws DataAccessException {
+        return batchInsertReturningKeys(sql, batchArgs, false);
+    }
+
+    /**
+     * 批量插入，按顺序返回每行的自增key
+     * @param sql 形如 INSERT INTO t (a, b) VALUES (?, ?) 的语句
+     * @param batchArgs 每个元素是一行的参数
+     * @param multiRowValues 为false时使用JDBC批处理，依赖驱动在executeBatch后返回整批的key；
+     *                       为true时将VALUES改写为 VALUES (?, ?), (?, ?), ...，每条语句插入多行，适用于批处理时只返回部分key的驱动
+     * @return
+     * @throws DataAccessException 驱动返回的key数量与行数不一致
+     */
+    public long[] batchInsertReturningKeys(String sql, List<Object[]> batchArgs, boolean multiRowValues)
+            throws DataAccessException {
+        if (!multiRowValues) {
+            return batchInsertReturningKeys(sql, batchArgs, this::bindArgs);
+        }
+        final long[] keys = new long[batchArgs.size()];
+        if (keys.length == 0) {
+            return keys;
+        }
+        multiRowInsert(sql, batchArgs, keys);
+        invalidateQueryCache(sql);
+        return keys;
+    }
+
+    /**
+     * 批量插入，参数由setter从每个元素绑定，使用JDBC批处理，按顺序返回每行的自增key
+     * @param sql
+     * @param items
+     * @param setter
+     * @return
+     * @param <T>
+     * @throws DataAccessException 驱动返回的key数量与行数不一致
+     */
+    public <T> long[] batchInsertReturningKeys(String sql, List<T> items, ParameterizedSetter<T> setter)
+            throws DataAccessException {
+        final int total = items.size();
+        final long[] keys = new long[total];
+        if (total == 0) {
+            return keys;
+        }
+        final int chunkSize = this.batchSize;
+        execute((Connection con) -> prepareStatement(con, sql, Statement.RETURN_GENERATED_KEYS),
+                timed(sql, null, (PreparedStatement ps) -> {
+                    int offset = 0;
+                    while (offset < total) {
+                        int end = Math.min(offset + chunkSize, total);
+                        for (int i = offset; i < end; i++) {
+                            setter.setValues(ps, items.get(i));
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                        readGeneratedKeys(ps, keys, offset, end - offset);
+                        offset = end;
+                    }
+                    return keys;
+                }, k -> k.length), false);
+        invalidateQueryCache(sql);
+        return keys;
+    }
+
+    /**
+     * 将 VALUES (...) 改写为多行，每条语句最多插入batchSize行，且参数总数不超过MAX_STATEMENT_PARAMETERS
+     */
+    void multiRowInsert(String sql, List<Object[]> batchArgs, long[] keys) {
+        final String[] parts = splitValuesClause(sql);
+        final int paramsPerRow = batchArgs.get(0).length;
+        final int rowsPerStatement = Math.max(1, Math.min(this.batchSize,
+                MAX_STATEMENT_PARAMETERS / Math.max(1, paramsPerRow)));
+        execute((Connection con) -> {
+            //除最后一条外语句相同，复用同一个PreparedStatement
+            PreparedStatement full = null;
+            try {
+                int offset = 0;
+                while (offset < batchArgs.size()) {
+                    int rows = Math.min(rowsPerStatement, batchArgs.size() - offset);
+                    String chunkSql = multiRowSql(parts, rows);
+                    boolean reuse = rows == rowsPerStatement;
+                    PreparedStatement ps;
+                    if (reuse && full != null) {
+                        ps = full;
+                    } else {
+                        ps = con.prepareStatement(chunkSql, Statement.RETURN_GENERATED_KEYS);
+                    }
+                    if (reuse) {
+                        full = ps;
+                    }
+                    try {
+                        int index = 1;
+                        for (int i = offset; i < offset + rows; i++) {
+                            Object[] args = batchArgs.get(i);
+                            if (args.length != paramsPerRow) {
+                                throw new DataAccessException(String.format(
+                                        "Row %d has %d parameters, expected %d.", i, args.length, paramsPerRow));
+                            }
+                            for (Object arg : args) {
+                                ps.setObject(index++, arg);
+                            }
+                        }
+                        final int start = offset;
+                        timed(chunkSql, null, (PreparedStatement p) -> {
+                            p.executeUpdate();
+                            readGeneratedKeys(p, keys, start, rows);
+                            return rows;
+                        }, n -> n).doInPreparedStatement(ps);
+                    } finally {
+                        if (ps != full) {
+                            ps.close();
+                        }
+                    }
+                    offset += rows;
+                }
+                return keys;
+            } finally {
+                if (full != null) {
+                    full.close();
+                }
+            }
+        }, false);
+    }
+
+    /**
+     * 拆分为 [VALUES之前（含VALUES）, 一行的占位符组 (?, ?)]
+     * @throws IllegalArgumentException 不是以单个 VALUES (...) 结尾的INSERT语句
+     */
+    static String[] splitValuesClause(String sql) {
+        String trimmed = sql.strip();
+        if (trimmed.endsWith(";")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1).stripTrailing();
+        }
+        int values = trimmed.toLowerCase().lastIndexOf("values");
+        int open = values < 0 ? -1 : trimmed.indexOf('(', values);
+        if (open < 0 || !trimmed.substring(values + 6, open).isBlank() || !trimmed.endsWith(")")) {
+            throw new IllegalArgumentException("Cannot rewrite to multi-row insert: " + sql);
+        }
+        //括号必须在语句末尾闭合
+        int depth = 0;
+        for (int i = open; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0 && i != trimmed.length() - 1) {
+                throw new IllegalArgumentException("Cannot rewrite to multi-row insert: " + sql);
+            }
+        }
+        return new String[] { trimmed.substring(0, open), trimmed.substring(open) };
+    }
+
+    static String multiRowSql(String[] parts, int rows) {
+        StringBuilder sb = new StringBuilder(parts[0].length() + (parts[1].length() + 2) * rows);
+        sb.append(parts[0]);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(parts[1]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 读取expected个自增key，写入keys[offset...]
+     * @throws DataAccessException 驱动返回的key数量与expected不一致
+     */
+    static void readGeneratedKeys(PreparedStatement ps, long[] keys, int offset, int expected) throws SQLException {
+        int n = 0;
+        try (ResultSet rs = ps.getGeneratedKeys()) {
+            while (rs.next()) {
+                if (n == expected) {
+                    n++;
+                    break;
+                }
+                keys[offset + n++] = rs.getLong(1);
+            }
+        }
+        if (n != expected) {
+            throw new DataAccessException(String.format(
+                    "Expected %d generated keys but driver returned %s; try multi-row VALUES instead.",
+                    expected, n > expected ? "more" : String.valueOf(n)));
+        }
     }
 
     /**
@@ -148,38 +868,362 @@ public class JdbcTemplate {
      * @throws DataAccessException
      */
     public int update(String sql, Object... args) throws DataAccessException {
-        return execute(preparedStatementCreator(sql, args),
-                (PreparedStatement ps) -> {
+        WriteBehindQueue queue = TransactionalUtils.getCurrentWriteBehindQueue(this.batchSize);
+        if (queue != null) {
+            //延迟写事务：积压到批次中，影响行数未知
+            enqueue(queue, sql, args);
+            return Statement.SUCCESS_NO_INFO;
+        }
+        return doUpdate(sql, args, preparedStatementCreator(sql, args));
+    }
+
+    /**
+     * 与update相同，但在延迟写事务（@Transactional(writeBehind = true)）中返回的影响行数在批次执行后才可用；
+     * 不在延迟写事务中时立即执行
+     * @param sql
+     * @param args
+     * @return
+     * @throws DataAccessException
+     */
+    public DeferredRowCount updateDeferred(String sql, Object... args) throws DataAccessException {
+        WriteBehindQueue queue = TransactionalUtils.getCurrentWriteBehindQueue(this.batchSize);
+        if (queue != null) {
+            return enqueue(queue, sql, args);
+        }
+        return DeferredRowCount.of(doUpdate(sql, args, preparedStatementCreator(sql, args)));
+    }
+
+    private DeferredRowCount enqueue(WriteBehindQueue queue, String sql, Object[] args) {
+        //调用方可能复用参数数组
+        DeferredRowCount result = queue.add(sql, args.clone(), this::executeQueuedBatch);
+        invalidateQueryCache(sql);
+        return result;
+    }
+
+    /**
+     * 在事务连接上批量执行延迟写积压的同一条SQL
+     */
+    private int[] executeQueuedBatch(Connection con, String sql, List<Object[]> batchArgs) throws SQLException {
+        PreparedStatement ps = prepareStatement(con, sql, Statement.NO_GENERATED_KEYS);
+        StatementCache cache = currentStatementCache();
+        boolean cached = cache != null && cache.isCached(ps);
+        try {
+            return timed(sql, null, (PreparedStatement p) -> {
+                for (Object[] args : batchArgs) {
+                    bindArgs(p, args);
+                    p.addBatch();
+                }
+                return p.executeBatch();
+            }, counts -> affectedRows(new int[][] { counts })).doInPreparedStatement(ps);
+        } finally {
+            if (cached) {
+                cache.release(ps);
+            } else {
+                ps.close();
+            }
+        }
+    }
+
+    /**
+     * Update操作，参数由setter从item绑定（如按类型调用setLong等），返回影响行数；
+     * 与update(sql, args...)使用不同的方法名，避免 (sql, x, null) 被解析为本方法
+     * @param sql
+     * @param item
+     * @param setter
+     * @return
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> int updateItem(String sql, T item, ParameterizedSetter<T> setter) throws DataAccessException {
+        return doUpdate(sql, null, (Connection con) -> {
+            PreparedStatement ps = prepareStatement(con, sql, Statement.NO_GENERATED_KEYS);
+            setter.setValues(ps, item);
+            return ps;
+        });
+    }
+
+    /**
+     * @param logArgs 用于慢查询日志的参数，未知时为null
+     */
+    private int doUpdate(String sql, @Nullable Object[] logArgs, PreparedStatementCreator psc) {
+        int n = execute(psc,
+                timed(sql, logArgs, (PreparedStatement ps) -> {
                     return ps.executeUpdate();
-                });
+                }, rows -> rows), false);
+        invalidateQueryCache(sql);
+        return n;
+    }
+
+    /**
+     * 批量Update，每batchSize条执行一次executeBatch
+     * @param sql
+     * @param batchArgs 每个元素是一条语句的参数
+     * @return 每个批次的影响行数
+     * @throws DataAccessException
+     */
+    public int[][] batchUpdate(String sql, List<Object[]> batchArgs) throws DataAccessException {
+        return batchUpdate(sql, batchArgs, this.batchSize);
+    }
+
+    public int[][] batchUpdate(String sql, List<Object[]> batchArgs, int chunkSize) throws DataAccessException {
+        return batchUpdate(sql, batchArgs, chunkSize, this::bindArgs);
+    }
+
+    public <T> int[][] batchUpdate(String sql, Iterable<T> items, ParameterizedSetter<T> setter) throws DataAccessException {
+        return batchUpdate(sql, items, this.batchSize, setter);
+    }
+
+    /**
+     * 批量Update：整个过程只创建一个PreparedStatement，每个元素由setter绑定参数后addBatch，每chunkSize条执行一次executeBatch；
+     * 若当前有事务则加入当前事务
+     * @param sql
+     * @param items
+     * @param chunkSize 每批条数
+     * @param setter 将一个元素绑定到PreparedStatement
+     * @return 每个批次的影响行数，result[i][j]为第i批第j条语句的影响行数
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> int[][] batchUpdate(String sql, Iterable<T> items, int chunkSize, ParameterizedSetter<T> setter)
+            throws DataAccessException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive.");
+        }
+        //批量参数由setter绑定，慢查询日志中不输出参数
+        int[][] counts = execute((Connection con) -> prepareStatement(con, sql, Statement.NO_GENERATED_KEYS),
+                timed(sql, null, (PreparedStatement ps) -> {
+                    List<int[]> results = new ArrayList<>();
+                    int n = 0;
+                    for (T item : items) {
+                        setter.setValues(ps, item);
+                        ps.addBatch();
+                        if (++n == chunkSize) {
+                            results.add(ps.executeBatch());
+                            n = 0;
+                        }
+                    }
+                    if (n > 0) {
+                        results.add(ps.executeBatch());
+                    }
+                    return results.toArray(new int[0][]);
+                }, JdbcTemplate::affectedRows), false);
+        invalidateQueryCache(sql);
+        return counts;
+    }
+
+    /**
+     * 执行DML后使查询缓存中相关表的条目失效，并丢弃当前事务IdentityMap中相关表的实例
+     */
+    void invalidateQueryCache(String sql) {
+        final QueryResultCache queryCache = this.queryCache;
+        if (queryCache != null) {
+            queryCache.invalidate(sql);
+        }
+        IdentityMap.invalidateCurrent(sql);
+    }
+
+    /**
+     * 执行了未知的SQL后使所有查询缓存失效，并丢弃当前事务IdentityMap中的所有实例
+     */
+    void invalidateAllQueryCache() {
+        final QueryResultCache queryCache = this.queryCache;
+        if (queryCache != null) {
+            queryCache.invalidateAll();
+        }
+        IdentityMap.invalidateCurrent(null);
+    }
+
+    /**
+     * 批量执行的影响行数合计，忽略SUCCESS_NO_INFO等负值
+     */
+    static long affectedRows(int[][] results) {
+        long sum = 0;
+        for (int[] chunk : results) {
+            for (int n : chunk) {
+                if (n > 0) {
+                    sum += n;
+                }
+            }
+        }
+        return sum;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 设置批量操作时每次executeBatch的默认条数
+     * @param batchSize
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * 查询时每次从数据库拉取的行数提示，0表示使用驱动默认值
+     * @param fetchSize
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = Math.max(0, fetchSize);
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * 查询最多返回的行数，0表示不限制
+     * @param maxRows
+     */
+    public void setMaxRows(int maxRows) {
+        this.maxRows = Math.max(0, maxRows);
+    }
+
+    /**
+     * 设置查询语句的游标类型，如ResultSet.TYPE_FORWARD_ONLY、ResultSet.CONCUR_READ_ONLY
+     * @param resultSetType
+     * @param resultSetConcurrency
+     */
+    public void setCursorHints(int resultSetType, int resultSetConcurrency) {
+        this.resultSetType = resultSetType;
+        this.resultSetConcurrency = resultSetConcurrency;
+    }
+
+    @Nullable
+    public JdbcMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 设置统计，为null或未开启时不统计
+     * @param metrics
+     */
+    public void setMetrics(@Nullable JdbcMetrics metrics) {
+        this.metrics = metrics != null && metrics.isEnabled() ? metrics : null;
+    }
+
+    public boolean isIdentityMapEnabled() {
+        return identityMapEnabled;
+    }
+
+    /**
+     * 是否在事务中为按主键查询@Table实体的queryForObject使用IdentityMap，默认开启
+     * @param identityMapEnabled
+     */
+    public void setIdentityMapEnabled(boolean identityMapEnabled) {
+        this.identityMapEnabled = identityMapEnabled;
+    }
+
+    @Nullable
+    public QueryResultCache getQueryCache() {
+        return queryCache;
     }
 
+    /**
+     * 设置查询结果缓存，用于queryForObject和queryForList：bean结果缓存副本，其他结果只缓存不可变的（见QueryResultCache）；
+     * 为null时不缓存
+     * @param queryCache
+     */
+    public void setQueryCache(@Nullable QueryResultCache queryCache) {
+        this.queryCache = queryCache;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    /**
+     * 事务连接上缓存的PreparedStatement数量，0表示不缓存
+     * @param statementCacheSize
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+    }
 
     /**
      * 调用execute(ConnectionCallback<T> action)方法，括号内的lamda表达式是对ConnectionCallback函数式接口的实现，
-     * 调用psc中的方法生成PreparedStatement，并将其传入到action中
+     * 调用psc中的方法生成PreparedStatement，并将其传入到action中；
+     * 无法得知执行的SQL修改了哪些表，执行后使所有查询缓存失效
      * @param psc
      * @param action
      * @return
      * @param <T>
      */
     public <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+        T result = execute(psc, action, false);
+        invalidateAllQueryCache();
+        return result;
+    }
+
+    /**
+     * 与execute(psc, action)相同，但不在事务中时从只读库获取连接（配置了读写分离时）
+     * @param psc
+     * @param action
+     * @return
+     * @param <T>
+     */
+    <T> T executeQuery(PreparedStatementCreator psc, PreparedStatementCallback<T> action) {
+        return execute(psc, action, true);
+    }
+
+    <T> T execute(PreparedStatementCreator psc, PreparedStatementCallback<T> action, boolean readOnly) {
         //函数式接口只有一个抽象方法，因此不用写方法名，直接写参数即对应ConnectionCallback<T>中的doInConnection方法
         return execute((Connection con) -> {
-            try (PreparedStatement ps = psc.createPreparedStatement(con)) {//由psc生成ps，生成方式取决于传入的psc
-                return action.doInPreparedStatement(ps); //在传入的PreparedStatementCallback中调用相应方法
+            PreparedStatement ps = psc.createPreparedStatement(con);//由psc生成ps，生成方式取决于传入的psc
+            final Consumer<Statement> listener = statementListener.get();
+            if (listener != null) {
+                listener.accept(ps);
             }
-        });
+            StatementCache cache = currentStatementCache();
+            try {
+                if (cache != null && cache.isCached(ps)) {
+                    //缓存中的PreparedStatement不关闭，清空参数后留给下次使用
+                    try {
+                        return action.doInPreparedStatement(ps);
+                    } finally {
+                        cache.release(ps);
+                    }
+                }
+                try (ps) {
+                    return action.doInPreparedStatement(ps); //在传入的PreparedStatementCallback中调用相应方法
+                }
+            } finally {
+                if (listener != null) {
+                    listener.accept(null);
+                }
+            }
+        }, readOnly);
     }
 
     /**
      * 在本方法中获取真正的connection，在action（ConnectionCallback的实现）的doInConnection方法中传入connection，获取执行后结果并返回
-     * 本方法集中处理获取连接、释放连接、捕获SQLException，让上层代码专注于使用Connection
+     * 本方法集中处理获取连接、释放连接、捕获SQLException，让上层代码专注于使用Connection；
+     * 无法得知action修改了哪些表，执行后使所有查询缓存失效
      * @param action
      * @return
      * @param <T>
      */
     public <T> T execute(ConnectionCallback<T> action) {
+        T result = execute(action, false);
+        invalidateAllQueryCache();
+        return result;
+    }
+
+    /**
+     * @param action
+     * @param readOnly 是否为读操作：不在事务中时，读操作从只读库获取连接（配置了读写分离时）
+     * @return
+     * @param <T>
+     */
+    <T> T execute(ConnectionCallback<T> action, boolean readOnly) {
         //尝试获取当前事务连接
         Connection current = TransactionalUtils.getCurrentConnection();
         if(current != null){
@@ -190,7 +1234,7 @@ public class JdbcTemplate {
             }
         }
         //当前无事务连接，从dataSource获取新连接
-        try(Connection newConn = dataSource.getConnection()) {
+        try(Connection newConn = getConnection(readOnly)) {
             //将autoCommit置为true
             boolean autoCommit = newConn.getAutoCommit();
             if(!autoCommit) {
@@ -202,12 +1246,60 @@ public class JdbcTemplate {
             if(!autoCommit) {
                 newConn.setAutoCommit(true);
             }
+            if (!readOnly && this.dataSource instanceof ReadWriteRoutingDataSource routing) {
+                //写操作完成后重新开始写后粘滞窗口
+                routing.markWritten();
+            }
             return result;
         } catch (SQLException e) {
             throw new DataAccessException(e);
         }
     }
 
+    private Connection getConnection(boolean readOnly) throws SQLException {
+        final JdbcMetrics metrics = this.metrics;
+        final long start = metrics == null ? 0 : System.nanoTime();
+        Connection con;
+        if (readOnly && this.dataSource instanceof ReadWriteRoutingDataSource routing) {
+            con = routing.getReadConnection();
+        } else {
+            con = this.dataSource.getConnection();
+        }
+        if (metrics != null) {
+            metrics.recordConnectionAcquire(System.nanoTime() - start);
+        }
+        return con;
+    }
+
+    /**
+     * 开启统计时包装action，记录sql的执行耗时和行数；未开启时直接返回action
+     * @param sql
+     * @param args 绑定参数，用于慢查询日志，未知时为null
+     * @param action
+     * @param rows 由结果计算行数，未知时返回负数
+     * @return
+     * @param <T>
+     */
+    private <T> PreparedStatementCallback<T> timed(String sql, @Nullable Object[] args, PreparedStatementCallback<T> action,
+                                                   ToLongFunction<T> rows) {
+        final JdbcMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return action;
+        }
+        return (PreparedStatement ps) -> {
+            final long start = System.nanoTime();
+            T result;
+            try {
+                result = action.doInPreparedStatement(ps);
+            } catch (SQLException | RuntimeException e) {
+                metrics.recordQuery(sql, args, System.nanoTime() - start, -1, false);
+                throw e;
+            }
+            metrics.recordQuery(sql, args, System.nanoTime() - start, rows.applyAsLong(result), true);
+            return result;
+        };
+    }
+
     /**
      * 将sql字段和args拼接为PreparedStatement
      * @param sql
@@ -216,11 +1308,81 @@ public class JdbcTemplate {
      */
     private PreparedStatementCreator preparedStatementCreator(String sql, Object... args) {
         return (Connection con) -> {
-            PreparedStatement ps = con.prepareStatement(sql);
+            PreparedStatement ps = prepareStatement(con, sql, Statement.NO_GENERATED_KEYS);
             bindArgs(ps, args);
             return ps;
         };
     }
+
+    /**
+     * 与preparedStatementCreator相同，但用于查询：使用配置的游标类型，并设置fetchSize和maxRows
+     * @param sql
+     * @param args
+     * @return
+     */
+    private PreparedStatementCreator queryStatementCreator(String sql, Object... args) {
+        return (Connection con) -> {
+            PreparedStatement ps = prepareStatement(con, new StatementCache.StatementKey(sql,
+                    Statement.NO_GENERATED_KEYS, this.resultSetType, this.resultSetConcurrency));
+            applyQuerySettings(ps);
+            bindArgs(ps, args);
+            return ps;
+        };
+    }
+
+    private void applyQuerySettings(PreparedStatement ps) throws SQLException {
+        //缓存的PreparedStatement会保留上一次借出时的设置，每次都要重新设置（包括0），否则会沿用旧的maxRows
+        ps.setFetchSize(this.fetchSize);
+        ps.setMaxRows(this.maxRows);
+    }
+
+    private PreparedStatement prepareStatement(Connection con, String sql, int autoGeneratedKeys) throws SQLException {
+        return prepareStatement(con, new StatementCache.StatementKey(sql, autoGeneratedKeys,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+    }
+
+    /**
+     * 创建PreparedStatement：在事务中且开启了缓存时从当前事务连接的StatementCache获取，否则新建
+     * @param con
+     * @param key
+     * @return
+     * @throws SQLException
+     */
+    private PreparedStatement prepareStatement(Connection con, StatementCache.StatementKey key) throws SQLException {
+        StatementCache cache = currentStatementCache();
+        if (cache != null && con == TransactionalUtils.getCurrentConnection()) {
+            return cache.acquire(con, key);
+        }
+        return key.prepare(con);
+    }
+
+    @Nullable
+    private StatementCache currentStatementCache() {
+        return this.statementCacheSize > 0 ? TransactionalUtils.getCurrentStatementCache(this.statementCacheSize) : null;
+    }
+
+    /**
+     * 依次关闭ResultSet、PreparedStatement、Connection，关闭时的异常作为suppressed加入到dae中
+     * @param dae 为null时遇到异常会新建一个
+     * @return dae，若没有异常且传入null则返回null
+     */
+    private DataAccessException closeQuietly(ResultSet rs, PreparedStatement ps, Connection con, DataAccessException dae) {
+        for (AutoCloseable c : new AutoCloseable[] { rs, ps, con }) {
+            if (c != null) {
+                try {
+                    c.close();
+                } catch (Exception e) {
+                    if (dae == null) {
+                        dae = new DataAccessException("Failed to close query resources.", e);
+                    } else {
+                        dae.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        return dae;
+    }
+
     /**
      * 将传入的参数绑定到PreparedStatement上,这种方式通常用于防止SQL注入攻击，因为PreparedStatement会自动处理特殊字符和转义序列，
      * 确保传入的参数被正确地解释为数据，而不是SQL代码的一部分
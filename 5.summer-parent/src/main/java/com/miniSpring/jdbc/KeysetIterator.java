@@ -0,0 +1,114 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.exception.DataAccessException;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * ClassName: KeysetIterator
+ * Description:
+ * JdbcTemplate.keysetIterate()返回的惰性迭代器：每次加载一页（key > 上一页最后的key），当前页遍历完后再加载下一页；
+ * 返回的行数少于pageSize时结束。prefetchExecutor不为null时，开始遍历一页的同时在后台加载下一页
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 10:05
+ * @Version 1.0
+ */
+class KeysetIterator<T> implements Iterator<T>, AutoCloseable {
+    /**
+     * 一页数据，lastKey为最后一行的key
+     */
+    record Page<T>(List<T> rows, Object lastKey) {
+    }
+
+    final int pageSize;
+    //参数为上一页最后的key（第一页为null），返回该key之后的一页
+    final Function<Object, Page<T>> loader;
+    //为null时不预取
+    final Executor prefetchExecutor;
+
+    List<T> rows = List.of();
+    int index = 0;
+    Object lastKey;
+    //已加载到最后一页
+    boolean exhausted = false;
+    CompletableFuture<Page<T>> prefetched;
+    boolean closed = false;
+
+    KeysetIterator(int pageSize, Function<Object, Page<T>> loader, Executor prefetchExecutor) {
+        this.pageSize = pageSize;
+        this.loader = loader;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (this.index >= this.rows.size()) {
+            if (this.exhausted || this.closed) {
+                return false;
+            }
+            accept(nextPage());
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return this.rows.get(this.index++);
+    }
+
+    Page<T> nextPage() {
+        CompletableFuture<Page<T>> future = this.prefetched;
+        this.prefetched = null;
+        if (future == null) {
+            return this.loader.apply(this.lastKey);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new DataAccessException("Failed to prefetch next page.", e.getCause());
+        }
+    }
+
+    void accept(Page<T> page) {
+        if (page.rows().size() >= this.pageSize && page.lastKey() == null) {
+            //loader把null当作第一页，继续加载会重复返回第一页
+            this.exhausted = true;
+            throw new DataAccessException("Keyset pagination requires a non-null key for the last row of a page.");
+        }
+        this.rows = page.rows();
+        this.index = 0;
+        if (page.rows().size() < this.pageSize) {
+            this.exhausted = true;
+            return;
+        }
+        this.lastKey = page.lastKey();
+        if (this.prefetchExecutor != null) {
+            final Object key = this.lastKey;
+            this.prefetched = CompletableFuture.supplyAsync(() -> this.loader.apply(key), this.prefetchExecutor);
+        }
+    }
+
+    /**
+     * 结束遍历，取消还未开始的预取
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        if (this.prefetched != null) {
+            this.prefetched.cancel(false);
+            this.prefetched = null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.miniSpring.jdbc;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * ClassName: ParameterizedSetter
+ * Description:
+ * 批量操作时将一个对象的属性绑定到PreparedStatement的参数上
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 18:05
+ * @Version 1.0
+ */
+@FunctionalInterface
+public interface ParameterizedSetter<T> {
+    void setValues(PreparedStatement ps, T argument) throws SQLException;
+}
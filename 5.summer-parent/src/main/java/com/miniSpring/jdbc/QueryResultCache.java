@@ -0,0 +1,360 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.jdbc.tx.TransactionalUtils;
+import jakarta.annotation.Nullable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * ClassName: QueryResultCache
+ * Description:
+ * JdbcTemplate的查询结果缓存，key为 SQL + 参数 + RowMapper，适合很少修改的字典类数据
+ *  - 条目超过ttl后失效；条目数超过maxSize时淘汰最久未访问的条目（LRU），失效的条目在读取时移除
+ *  - 每张表维护一个版本号，条目记录查询前各表的版本号；update/batchUpdate从DML中解析出表名并递增版本号，
+ *    版本号不一致的条目视为失效。查询前记录版本号，因此查询期间发生的修改也会使该条目失效，不会缓存到旧数据
+ *  - 在事务中修改时，表的失效推迟到事务提交后，回滚则不失效；事务内修改过的表的查询不走缓存，保证读到自己的修改
+ *  - 无法解析表名的查询不缓存，无法解析表名的DML使所有条目失效
+ * 缓存的结果由多个调用方共享，调用方不会拿到缓存中的实例：
+ *  - 提供了copier时（JdbcTemplate对可复制的BeanRowMapper结果提供），缓存保存一份副本，每次命中返回新的副本
+ *  - 否则只缓存不可变的结果：String、基本类型的包装类、BigDecimal/BigInteger、枚举、java.time类型、record，
+ *    以及元素都是这些类型的只读List；其他结果不缓存，每次都查询数据库
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 23:52
+ * @Version 1.0
+ */
+public class QueryResultCache {
+    //缓存的SQL表名解析结果数量上限
+    static final int MAX_PARSED_SQL = 1024;
+    //无法解析表名时的占位值
+    static final String[] UNKNOWN = new String[0];
+    //可共享的值类型
+    static final Set<Class<?>> IMMUTABLE_TYPES = Set.of(Boolean.class, Character.class, Byte.class, Short.class,
+            Integer.class, Long.class, Float.class, Double.class, BigDecimal.class, BigInteger.class);
+    //只读List的实现类型
+    static final Set<Class<?>> UNMODIFIABLE_LIST_TYPES = Set.of(
+            Collections.unmodifiableList(new ArrayList<>()).getClass(), List.of().getClass(), List.of(1).getClass());
+
+    final int maxSize;
+    final long ttlNanos;
+    //允许缓存的表，为空表示所有表
+    final Set<String> cacheableTables;
+
+    //访问顺序的LinkedHashMap，超出容量时淘汰最久未访问的条目；读写都需要持有其锁
+    final LinkedHashMap<Key, Entry> entries;
+    //表名 -> 版本号
+    final ConcurrentHashMap<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+    //无法解析表名的DML递增全局版本号
+    final AtomicLong globalVersion = new AtomicLong();
+    //SQL -> 查询涉及的表
+    final ConcurrentHashMap<String, String[]> readTables = new ConcurrentHashMap<>();
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder invalidations = new LongAdder();
+
+    /**
+     * @param maxSize 最多缓存的条目数
+     * @param ttlMillis 条目有效期（毫秒）
+     * @param cacheableTables 允许缓存的表，查询涉及的表都在其中时才缓存；为空表示所有表
+     */
+    public QueryResultCache(int maxSize, long ttlMillis, Collection<String> cacheableTables) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive.");
+        }
+        if (ttlMillis <= 0) {
+            throw new IllegalArgumentException("ttlMillis must be positive.");
+        }
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        Set<String> tables = new HashSet<>();
+        for (String t : cacheableTables) {
+            if (!t.isBlank()) {
+                tables.add(SqlTables.normalize(t.trim().toLowerCase()));
+            }
+        }
+        this.cacheableTables = Set.copyOf(tables);
+    }
+
+    public QueryResultCache(int maxSize, long ttlMillis) {
+        this(maxSize, ttlMillis, Set.of());
+    }
+
+    /**
+     * 从缓存中获取查询结果，不存在或已失效时由loader查询，结果不可变时缓存
+     * @param sql
+     * @param args
+     * @param mapper 结果的映射方式，作为key的一部分
+     * @param loader 实际执行查询
+     * @return
+     * @param <T>
+     */
+    public <T> T query(String sql, @Nullable Object[] args, Object mapper, Supplier<T> loader) {
+        return query(sql, args, mapper, loader, null);
+    }
+
+    /**
+     * 从缓存中获取查询结果，不存在或已失效时由loader查询并缓存
+     * @param sql
+     * @param args
+     * @param mapper 结果的映射方式，作为key的一部分
+     * @param loader 实际执行查询
+     * @param copier 复制结果；为null时只缓存不可变的结果
+     * @return
+     * @param <T>
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T query(String sql, @Nullable Object[] args, Object mapper, Supplier<T> loader,
+                       @Nullable UnaryOperator<T> copier) {
+        String[] tables = tablesOf(sql);
+        if (tables == UNKNOWN) {
+            return loader.get();
+        }
+        //事务中修改过的表，提交前不能读缓存也不能写缓存
+        Set<String> pending = TransactionalUtils.getResource(this);
+        if (pending != null && (pending.contains(null) || containsAny(pending, tables))) {
+            return loader.get();
+        }
+        Key key = new Key(sql, args, mapper);
+        Entry entry;
+        synchronized (this.entries) {
+            entry = this.entries.get(key);
+            if (entry != null && !isCurrent(entry)) {
+                this.entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            this.hits.increment();
+            return copier == null ? (T) entry.value : copier.apply((T) entry.value);
+        }
+        this.misses.increment();
+        //查询前记录版本号
+        long global = this.globalVersion.get();
+        long[] versions = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            versions[i] = version(tables[i]).get();
+        }
+        T value = loader.get();
+        Object cached;
+        if (copier != null) {
+            //缓存副本，调用方修改返回的结果不影响缓存
+            cached = value == null ? null : copier.apply(value);
+        } else if (isImmutable(value)) {
+            cached = value;
+        } else {
+            return value;
+        }
+        Key stored = new Key(sql, args == null ? null : args.clone(), mapper);
+        Entry created = new Entry(cached, System.nanoTime() + this.ttlNanos, tables, versions, global);
+        synchronized (this.entries) {
+            this.entries.put(stored, created);
+        }
+        return value;
+    }
+
+    /**
+     * 执行DML后调用，使其修改的表的缓存失效；在事务中时推迟到事务提交后
+     * @param sql
+     */
+    public void invalidate(String sql) {
+        invalidateWritten(SqlTables.writtenTables(sql));
+    }
+
+    /**
+     * 执行了无法得知修改了哪些表的操作后调用，使所有条目失效；在事务中时推迟到事务提交后
+     */
+    public void invalidateAll() {
+        invalidateWritten(null);
+    }
+
+    /**
+     * @param tables 修改的表，为null表示所有表
+     */
+    void invalidateWritten(@Nullable Set<String> tables) {
+        Set<String> pending = TransactionalUtils.getResource(this);
+        if (pending == null && TransactionalUtils.isTransactionActive()) {
+            Set<String> created = new HashSet<>();
+            TransactionalUtils.bindResource(this, created);
+            TransactionalUtils.registerAfterCommit(() -> invalidateTables(created));
+            pending = created;
+        }
+        if (pending != null) {
+            //null表示所有表
+            if (tables == null) {
+                pending.add(null);
+            } else {
+                pending.addAll(tables);
+            }
+            return;
+        }
+        invalidateTables(tables);
+    }
+
+    /**
+     * 立即使表的缓存失效
+     * @param tables 为null或包含null时使所有条目失效
+     */
+    public void invalidateTables(@Nullable Collection<String> tables) {
+        this.invalidations.increment();
+        if (tables == null || tables.contains(null)) {
+            this.globalVersion.incrementAndGet();
+            return;
+        }
+        for (String table : tables) {
+            version(table).incrementAndGet();
+        }
+    }
+
+    /**
+     * 清空所有条目
+     */
+    public void clear() {
+        this.globalVersion.incrementAndGet();
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getInvalidations() {
+        return this.invalidations.sum();
+    }
+
+    boolean isCurrent(Entry entry) {
+        if (System.nanoTime() - entry.expiresAt >= 0 || entry.globalVersion != this.globalVersion.get()) {
+            return false;
+        }
+        for (int i = 0; i < entry.tables.length; i++) {
+            if (version(entry.tables[i]).get() != entry.versions[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    AtomicLong version(String table) {
+        return this.tableVersions.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    /**
+     * 查询涉及的表；无法解析或包含不允许缓存的表时返回UNKNOWN
+     */
+    String[] tablesOf(String sql) {
+        String[] tables = this.readTables.get(sql);
+        if (tables == null) {
+            Set<String> parsed = SqlTables.readTables(sql);
+            if (parsed == null || (!this.cacheableTables.isEmpty() && !this.cacheableTables.containsAll(parsed))) {
+                tables = UNKNOWN;
+            } else {
+                tables = parsed.toArray(new String[0]);
+            }
+            if (this.readTables.size() < MAX_PARSED_SQL) {
+                this.readTables.put(sql, tables);
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 结果能否在多个调用方之间共享；record视为不可变
+     */
+    static boolean isImmutable(@Nullable Object value) {
+        if (value == null || value instanceof String || value instanceof Enum<?> || value instanceof Record) {
+            return true;
+        }
+        Class<?> type = value.getClass();
+        if (IMMUTABLE_TYPES.contains(type) || type.getPackageName().equals("java.time")) {
+            return true;
+        }
+        if (value instanceof List<?> list && UNMODIFIABLE_LIST_TYPES.contains(type)) {
+            for (Object element : list) {
+                if (!isImmutable(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    static boolean containsAny(Set<String> set, String[] values) {
+        for (String v : values) {
+            if (set.contains(v)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    record Entry(Object value, long expiresAt, String[] tables, long[] versions, long globalVersion) {
+    }
+
+    /**
+     * 参数按数组内容比较
+     */
+    static final class Key {
+        final String sql;
+        final Object[] args;
+        final Object mapper;
+        final int hash;
+
+        Key(String sql, Object[] args, Object mapper) {
+            this.sql = sql;
+            this.args = args == null || args.length == 0 ? null : args;
+            this.mapper = mapper;
+            this.hash = (sql.hashCode() * 31 + Arrays.deepHashCode(this.args)) * 31 + mapper.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key k)) {
+                return false;
+            }
+            return this.hash == k.hash && this.sql.equals(k.sql) && Objects.equals(this.mapper, k.mapper)
+                    && Arrays.deepEquals(this.args, k.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
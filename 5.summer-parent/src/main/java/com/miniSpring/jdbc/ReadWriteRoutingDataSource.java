@@ -0,0 +1,281 @@
+package com.miniSpring.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ClassName: ReadWriteRoutingDataSource
+ * Description:
+ * 读写分离的DataSource：getConnection()总是返回主库连接，getReadConnection()按策略从只读库中选择一个
+ *  - ROUND_ROBIN：轮询；LEAST_LOADED：选择活跃连接数+等待线程数最少的只读库（仅HikariDataSource，其余按0计）
+ *  - 每个线程写操作之后的stickyAfterWrite时间内，读操作仍然走主库，避免因主从延迟读不到刚写入的数据
+ *  - 只读库获取连接失败时依次尝试其他只读库，全部失败时回退到主库
+ * JdbcTemplate的查询方法和@Transactional(readOnly = true)的事务会调用getReadConnection()，其余操作均走主库
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 21:20
+ * @Version 1.0
+ */
+public class ReadWriteRoutingDataSource implements DataSource, AutoCloseable {
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_LOADED;
+
+        /**
+         * 解析配置值，如 round-robin、least-loaded
+         * @param value
+         * @return
+         */
+        public static Selection of(String value) {
+            return Selection.valueOf(value.trim().replace('-', '_').toUpperCase());
+        }
+    }
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final DataSource primary;
+    final DataSource[] replicas;
+    final Selection selection;
+    final long stickyNanos;
+    final AtomicInteger counter = new AtomicInteger();
+    //每个线程最近一次写操作的时间（System.nanoTime()），未写过则为null
+    final ThreadLocal<long[]> lastWrite = new ThreadLocal<>();
+
+    final LongAdder replicaReads = new LongAdder();
+    final LongAdder primaryReads = new LongAdder();
+
+    /**
+     * @param primary 主库
+     * @param replicas 只读库，可以为空
+     * @param selection 只读库选择策略
+     * @param stickyAfterWriteMillis 写操作之后多长时间内读操作仍走主库，0表示不粘滞
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Selection selection,
+                                      long stickyAfterWriteMillis) {
+        this.primary = primary;
+        this.replicas = replicas.toArray(new DataSource[0]);
+        this.selection = selection;
+        this.stickyNanos = Math.max(0, stickyAfterWriteMillis) * 1_000_000L;
+    }
+
+    /**
+     * 获取主库连接，并记为当前线程的一次写操作
+     * @return
+     * @throws SQLException
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        markWritten();
+        return this.primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        markWritten();
+        return this.primary.getConnection(username, password);
+    }
+
+    /**
+     * 获取用于读操作的连接：没有只读库或当前线程处于写后粘滞窗口内时返回主库连接
+     * @return
+     * @throws SQLException
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (this.replicas.length == 0 || isSticky()) {
+            this.primaryReads.increment();
+            return this.primary.getConnection();
+        }
+        int start = select();
+        SQLException failure = null;
+        for (int i = 0; i < this.replicas.length; i++) {
+            int index = (start + i) % this.replicas.length;
+            try {
+                Connection con = this.replicas[index].getConnection();
+                this.replicaReads.increment();
+                return con;
+            } catch (SQLException e) {
+                logger.warn("failed to get connection from replica #{}: {}", index, e.getMessage());
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        logger.warn("all replicas unavailable, fall back to primary.");
+        this.primaryReads.increment();
+        try {
+            return this.primary.getConnection();
+        } catch (SQLException e) {
+            e.addSuppressed(failure);
+            throw e;
+        }
+    }
+
+    /**
+     * 记录当前线程的一次写操作，开始（或延长）写后粘滞窗口
+     */
+    public void markWritten() {
+        if (this.stickyNanos == 0) {
+            return;
+        }
+        long[] holder = this.lastWrite.get();
+        if (holder == null) {
+            holder = new long[1];
+            this.lastWrite.set(holder);
+        }
+        holder[0] = System.nanoTime();
+    }
+
+    /**
+     * 当前线程是否处于写后粘滞窗口内
+     * @return
+     */
+    public boolean isSticky() {
+        long[] holder = this.lastWrite.get();
+        return holder != null && System.nanoTime() - holder[0] < this.stickyNanos;
+    }
+
+    int select() {
+        int next = this.counter.getAndIncrement() & Integer.MAX_VALUE;
+        if (this.selection == Selection.ROUND_ROBIN) {
+            return next % this.replicas.length;
+        }
+        //负载相同时从轮询位置开始，避免总是选中第一个
+        int best = next % this.replicas.length;
+        int bestLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < this.replicas.length; i++) {
+            int index = (next + i) % this.replicas.length;
+            int load = load(this.replicas[index]);
+            if (load < bestLoad) {
+                best = index;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    static int load(DataSource ds) {
+        try {
+            //连接池可能被StateTrackingDataSource等包装
+            HikariDataSource hikari = ds instanceof HikariDataSource h ? h
+                    : ds.isWrapperFor(HikariDataSource.class) ? ds.unwrap(HikariDataSource.class) : null;
+            if (hikari != null) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                if (pool != null) {
+                    return pool.getActiveConnections() + pool.getThreadsAwaitingConnection();
+                }
+            }
+        } catch (SQLException e) {
+            //无法获取负载时按0处理
+        }
+        return 0;
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<DataSource> getReplicas() {
+        return List.of(replicas);
+    }
+
+    /**
+     * 路由到只读库的读操作次数
+     * @return
+     */
+    public long getReplicaReadCount() {
+        return this.replicaReads.sum();
+    }
+
+    /**
+     * 路由到主库的读操作次数（粘滞、无只读库或只读库不可用）
+     * @return
+     */
+    public long getPrimaryReadCount() {
+        return this.primaryReads.sum();
+    }
+
+    /**
+     * 关闭主库和所有只读库
+     * @throws SQLException 第一个关闭失败的异常，其余作为suppressed
+     */
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (DataSource ds : this.replicas) {
+            failure = closeQuietly(ds, failure);
+        }
+        failure = closeQuietly(this.primary, failure);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * 关闭DataSource，失败时记录到failure中（非SQLException包装为SQLException），返回第一个失败的异常
+     */
+    static SQLException closeQuietly(DataSource ds, SQLException failure) {
+        if (ds instanceof AutoCloseable c) {
+            try {
+                c.close();
+            } catch (Exception e) {
+                SQLException ex = e instanceof SQLException se ? se : new SQLException("Failed to close data source.", e);
+                if (failure == null) {
+                    return ex;
+                }
+                failure.addSuppressed(ex);
+            }
+        }
+        return failure;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return this.primary.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        this.primary.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        this.primary.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return this.primary.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return this.primary.getParentLogger();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        return this.primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || this.primary.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,17 @@
+package com.miniSpring.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * ClassName: RowCallbackHandler
+ * Description:
+ * 逐行处理查询结果，不返回值，适合导出等不需要把结果全部放入内存的场景
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 19:02
+ * @Version 1.0
+ */
+@FunctionalInterface
+public interface RowCallbackHandler {
+    void processRow(ResultSet rs) throws SQLException;
+}
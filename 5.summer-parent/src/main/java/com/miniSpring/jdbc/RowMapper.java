@@ -18,4 +18,15 @@ public interface RowMapper<T>{
 
     @Nullable
     T mapRow(ResultSet rs, int rowNum) throws SQLException;
+
+    /**
+     * 遍历rs之前调用一次，返回用于映射rs中每一行的RowMapper；
+     * 需要按结果集的列解析映射方式的实现（如BeanRowMapper）在此解析一次，之后每一行不再重复检查
+     * @param rs
+     * @return 默认返回自身
+     * @throws SQLException
+     */
+    default RowMapper<T> forResultSet(ResultSet rs) throws SQLException {
+        return this;
+    }
 }
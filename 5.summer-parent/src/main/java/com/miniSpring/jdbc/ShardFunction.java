@@ -0,0 +1,30 @@
+package com.miniSpring.jdbc;
+
+/**
+ * ClassName: ShardFunction
+ * Description:
+ * 根据分片键（如租户id）计算所在分片的序号
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 15:10
+ * @Version 1.0
+ */
+@FunctionalInterface
+public interface ShardFunction {
+
+    /**
+     * 整数分片键按值取模，其余按hashCode()取模
+     */
+    ShardFunction MODULO = (shardKey, shardCount) -> {
+        if (shardKey instanceof Long || shardKey instanceof Integer || shardKey instanceof Short || shardKey instanceof Byte) {
+            return (int) Math.floorMod(((Number) shardKey).longValue(), (long) shardCount);
+        }
+        return Math.floorMod(shardKey.hashCode(), shardCount);
+    };
+
+    /**
+     * @param shardKey 分片键，不为null
+     * @param shardCount 分片数
+     * @return 分片序号，范围为[0, shardCount)
+     */
+    int shardFor(Object shardKey, int shardCount);
+}
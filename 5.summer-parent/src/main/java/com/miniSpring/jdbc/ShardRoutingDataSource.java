@@ -0,0 +1,140 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.jdbc.tx.TransactionalUtils;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+
+/**
+ * ClassName: ShardRoutingDataSource
+ * Description:
+ * 分片的DataSource，供DataSourceTransactionManager使用：事务获取连接时返回该事务绑定的分片的连接。
+ * 事务由ShardedJdbcTemplate在第一次路由时绑定到分片，之后该事务中的所有语句都使用这一个分片的连接
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 15:15
+ * @Version 1.0
+ */
+public class ShardRoutingDataSource implements DataSource, AutoCloseable {
+    final DataSource[] shards;
+
+    public ShardRoutingDataSource(List<? extends DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required.");
+        }
+        this.shards = shards.toArray(new DataSource[0]);
+    }
+
+    /**
+     * 获取当前事务绑定的分片的连接
+     * @return
+     * @throws SQLException 不在事务中或事务还未绑定分片
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        return currentShard().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return currentShard().getConnection(username, password);
+    }
+
+    DataSource currentShard() throws SQLException {
+        Integer index = TransactionalUtils.getResource(this);
+        if (index == null) {
+            throw new SQLException("No shard bound to current transaction, access the shard through ShardedJdbcTemplate first.");
+        }
+        return this.shards[index];
+    }
+
+    /**
+     * 当前事务绑定的分片
+     * @return 不在事务中或还未绑定时返回-1
+     */
+    public int getCurrentShardIndex() {
+        Integer index = TransactionalUtils.getResource(this);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 将当前事务绑定到分片，由ShardedJdbcTemplate调用
+     * @return 不在该DataSource的事务中时返回false
+     */
+    boolean bindCurrentShard(int index) {
+        return TransactionalUtils.isTransactionActive(this) && TransactionalUtils.bindResource(this, index);
+    }
+
+    public int getShardCount() {
+        return this.shards.length;
+    }
+
+    public DataSource getShard(int index) {
+        return this.shards[index];
+    }
+
+    public List<DataSource> getShards() {
+        return List.of(this.shards);
+    }
+
+    /**
+     * 关闭所有分片
+     * @throws SQLException 第一个关闭失败的异常，其余作为suppressed
+     */
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (DataSource ds : this.shards) {
+            failure = ReadWriteRoutingDataSource.closeQuietly(ds, failure);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return this.shards[0].getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        for (DataSource ds : this.shards) {
+            ds.setLogWriter(out);
+        }
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        for (DataSource ds : this.shards) {
+            ds.setLoginTimeout(seconds);
+        }
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return this.shards[0].getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return this.shards[0].getParentLogger();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        throw new SQLException("Cannot unwrap ShardRoutingDataSource to " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this);
+    }
+}
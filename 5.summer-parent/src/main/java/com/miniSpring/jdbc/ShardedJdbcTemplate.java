@@ -0,0 +1,342 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.exception.DataAccessException;
+import com.miniSpring.exception.TransactionException;
+import com.miniSpring.jdbc.tx.TransactionalUtils;
+import jakarta.annotation.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * ClassName: ShardedJdbcTemplate
+ * Description:
+ * 按分片键（如租户id）把操作路由到对应分片的JdbcTemplate，或在所有分片上并行执行查询后合并结果
+ *  - shard(shardKey)由ShardFunction计算分片，返回该分片的JdbcTemplate
+ *  - 在ShardRoutingDataSource的事务管理器开启的事务中，第一次路由时将事务绑定到该分片，之后访问其他分片抛出TransactionException；
+ *    其他事务管理器开启的事务中不能使用，避免语句落到其他数据库的事务连接上
+ *  - queryForListOnAll、queryForSortedListOnAll等方法在所有分片上并行执行，每个分片同时执行的任务数由各自的AsyncJdbcTemplate限制，
+ *    任一分片失败时取消其余分片正在执行的语句；不能在分片事务中调用
+ *  - 默认使用守护线程的线程池，也可以传入其他Executor（如虚拟线程的Executor）
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 15:30
+ * @Version 1.0
+ */
+public class ShardedJdbcTemplate implements AutoCloseable {
+    final ShardRoutingDataSource dataSource;
+    final ShardFunction shardFunction;
+    final JdbcTemplate[] templates;
+    final AsyncJdbcTemplate[] asyncTemplates;
+    //由本类创建的线程池，close时关闭
+    final ExecutorService ownedExecutor;
+
+    /**
+     * 使用守护线程的线程池，每个分片同时执行maxConcurrencyPerShard个并行查询
+     * @param dataSource
+     * @param shardFunction
+     * @param maxConcurrencyPerShard
+     */
+    public ShardedJdbcTemplate(ShardRoutingDataSource dataSource, ShardFunction shardFunction, int maxConcurrencyPerShard) {
+        this(dataSource, shardFunction, maxConcurrencyPerShard, null);
+    }
+
+    /**
+     * @param dataSource 所有分片
+     * @param shardFunction 分片键 -> 分片序号
+     * @param maxConcurrencyPerShard 每个分片同时执行的并行查询数上限（一般为分片连接池的maximum-pool-size）
+     * @param executor 执行并行查询的Executor，为null时创建守护线程的线程池
+     */
+    public ShardedJdbcTemplate(ShardRoutingDataSource dataSource, ShardFunction shardFunction, int maxConcurrencyPerShard,
+                               @Nullable Executor executor) {
+        this.dataSource = dataSource;
+        this.shardFunction = shardFunction;
+        if (executor == null) {
+            //并发由每个分片的Semaphore限制，线程数不固定，避免等待繁忙分片的任务占满线程而阻塞其他分片
+            AtomicInteger index = new AtomicInteger();
+            this.ownedExecutor = Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "jdbc-shard-" + index.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            executor = this.ownedExecutor;
+        } else {
+            this.ownedExecutor = null;
+        }
+        int n = dataSource.getShardCount();
+        this.templates = new JdbcTemplate[n];
+        this.asyncTemplates = new AsyncJdbcTemplate[n];
+        for (int i = 0; i < n; i++) {
+            this.templates[i] = new JdbcTemplate(dataSource.getShard(i));
+            this.asyncTemplates[i] = new AsyncJdbcTemplate(this.templates[i], executor, maxConcurrencyPerShard);
+        }
+    }
+
+    /**
+     * 计算分片键所在的分片
+     * @param shardKey
+     * @return
+     */
+    public int shardFor(Object shardKey) {
+        if (shardKey == null) {
+            throw new IllegalArgumentException("Shard key must not be null.");
+        }
+        int index = this.shardFunction.shardFor(shardKey, this.templates.length);
+        if (index < 0 || index >= this.templates.length) {
+            throw new IllegalStateException(String.format("Shard function returned %d for key %s, expected [0, %d).",
+                    index, shardKey, this.templates.length));
+        }
+        return index;
+    }
+
+    /**
+     * 返回分片键所在分片的JdbcTemplate
+     * @param shardKey
+     * @return
+     * @throws TransactionException 当前事务已绑定到其他分片，或处于其他事务管理器开启的事务中
+     */
+    public JdbcTemplate shard(Object shardKey) {
+        return getShard(shardFor(shardKey));
+    }
+
+    /**
+     * 返回指定分片的JdbcTemplate
+     * @param index
+     * @return
+     * @throws TransactionException 当前事务已绑定到其他分片，或处于其他事务管理器开启的事务中
+     */
+    public JdbcTemplate getShard(int index) {
+        if (TransactionalUtils.isTransactionActive()) {
+            if (!TransactionalUtils.isTransactionActive(this.dataSource)) {
+                throw new TransactionException("ShardedJdbcTemplate cannot join a transaction of another DataSource.");
+            }
+            int bound = this.dataSource.getCurrentShardIndex();
+            if (bound < 0) {
+                this.dataSource.bindCurrentShard(index);
+            } else if (bound != index) {
+                throw new TransactionException(String.format(
+                        "Transaction is bound to shard %d, cannot access shard %d.", bound, index));
+            }
+        }
+        return this.templates[index];
+    }
+
+    public <T> T queryForObject(Object shardKey, String sql, Class<T> clazz, Object... args) {
+        return shard(shardKey).queryForObject(sql, clazz, args);
+    }
+
+    public <T> T queryForObject(Object shardKey, String sql, RowMapper<T> rowMapper, Object... args) {
+        return shard(shardKey).queryForObject(sql, rowMapper, args);
+    }
+
+    public <T> List<T> queryForList(Object shardKey, String sql, Class<T> clazz, Object... args) {
+        return shard(shardKey).queryForList(sql, clazz, args);
+    }
+
+    public <T> List<T> queryForList(Object shardKey, String sql, RowMapper<T> rowMapper, Object... args) {
+        return shard(shardKey).queryForList(sql, rowMapper, args);
+    }
+
+    public int update(Object shardKey, String sql, Object... args) {
+        return shard(shardKey).update(sql, args);
+    }
+
+    /**
+     * 在所有分片上并行查询，按分片顺序拼接结果
+     */
+    public <T> List<T> queryForListOnAll(String sql, Class<T> clazz, Object... args) {
+        return merge(executeOnAll(t -> t.queryForList(sql, clazz, args)), null, 0);
+    }
+
+    public <T> List<T> queryForListOnAll(String sql, RowMapper<T> rowMapper, Object... args) {
+        return merge(executeOnAll(t -> t.queryForList(sql, rowMapper, args)), null, 0);
+    }
+
+    /**
+     * 在所有分片上并行查询，合并后按order排序并取前limit条。
+     * SQL中带有相同的ORDER BY和LIMIT时每个分片只需返回limit条，合并时按各分片已排好的顺序归并
+     * @param sql
+     * @param clazz
+     * @param order 为null时按分片顺序拼接
+     * @param limit 小于等于0表示不限制
+     * @param args
+     * @return
+     */
+    public <T> List<T> queryForSortedListOnAll(String sql, Class<T> clazz, @Nullable Comparator<? super T> order,
+                                               int limit, Object... args) {
+        return merge(executeOnAll(t -> t.queryForList(sql, clazz, args)), order, limit);
+    }
+
+    public <T> List<T> queryForSortedListOnAll(String sql, RowMapper<T> rowMapper, @Nullable Comparator<? super T> order,
+                                               int limit, Object... args) {
+        return merge(executeOnAll(t -> t.queryForList(sql, rowMapper, args)), order, limit);
+    }
+
+    /**
+     * 在所有分片上并行查询一个数值并求和，如分片上的COUNT(*)
+     */
+    public long queryForLongSumOnAll(String sql, Object... args) {
+        long sum = 0;
+        for (Number n : executeOnAll(t -> t.queryForNumber(sql, args))) {
+            if (n != null) {
+                sum += n.longValue();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 在所有分片上并行执行更新
+     * @return 每个分片更新的行数，按分片顺序
+     */
+    public int[] updateOnAll(String sql, Object... args) {
+        List<Integer> counts = executeOnAll(t -> t.update(sql, args));
+        int[] result = new int[counts.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = counts.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * 在所有分片上并行执行action，等待全部完成；任一分片失败时取消其余分片并抛出异常。
+     * 每个分片的语句使用自己的连接并自动提交，不加入调用方的事务
+     * @param action
+     * @return 每个分片的结果，按分片顺序
+     * @param <T>
+     * @throws TransactionException 在分片事务中调用
+     * @throws DataAccessException 任一分片执行失败
+     */
+    public <T> List<T> executeOnAll(Function<JdbcTemplate, T> action) {
+        if (TransactionalUtils.isTransactionActive(this.dataSource)) {
+            throw new TransactionException("Cannot query all shards in a transaction bound to a single shard.");
+        }
+        int n = this.asyncTemplates.length;
+        List<CompletableFuture<T>> futures = new ArrayList<>(n);
+        for (AsyncJdbcTemplate async : this.asyncTemplates) {
+            futures.add(async.submit(action));
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(CompletableFuture<?>[]::new));
+        //任一分片失败时立即结束等待，不必等其他分片执行完
+        futures.forEach(f -> f.whenComplete((r, e) -> {
+            if (e != null) {
+                all.completeExceptionally(e);
+            }
+        }));
+        try {
+            all.get();
+        } catch (InterruptedException e) {
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while waiting for shard queries.");
+        } catch (ExecutionException e) {
+            futures.forEach(f -> f.cancel(true));
+            for (int i = 0; i < n; i++) {
+                CompletableFuture<T> f = futures.get(i);
+                if (f.isCompletedExceptionally() && !f.isCancelled()) {
+                    throw new DataAccessException(String.format("Query failed on shard %d.", i), unwrap(e.getCause()));
+                }
+            }
+            throw new DataAccessException("Query failed on shard.", unwrap(e.getCause()));
+        }
+        List<T> results = new ArrayList<>(n);
+        for (CompletableFuture<T> f : futures) {
+            results.add(f.join());
+        }
+        return results;
+    }
+
+    static Throwable unwrap(Throwable e) {
+        while ((e instanceof ExecutionException || e instanceof CompletionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    /**
+     * 合并各分片的结果：order为null时按分片顺序拼接，否则先对每个分片排序（已有序时只需线性时间），
+     * 再用优先队列归并，取到limit条即停止
+     */
+    static <T> List<T> merge(List<List<T>> shardResults, @Nullable Comparator<? super T> order, int limit) {
+        int total = 0;
+        for (List<T> list : shardResults) {
+            total += list.size();
+        }
+        int size = limit > 0 ? Math.min(limit, total) : total;
+        List<T> merged = new ArrayList<>(size);
+        if (order == null) {
+            for (List<T> list : shardResults) {
+                for (T row : list) {
+                    if (merged.size() == size) {
+                        return merged;
+                    }
+                    merged.add(row);
+                }
+            }
+            return merged;
+        }
+        //[分片序号, 下一行的位置]
+        List<List<T>> sorted = new ArrayList<>(shardResults.size());
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, shardResults.size()),
+                (a, b) -> order.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+        for (List<T> list : shardResults) {
+            List<T> copy = new ArrayList<>(list);
+            copy.sort(order);
+            sorted.add(copy);
+            if (!copy.isEmpty()) {
+                heads.add(new int[] { sorted.size() - 1, 0 });
+            }
+        }
+        while (merged.size() < size) {
+            int[] head = heads.poll();
+            List<T> list = sorted.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    public int getShardCount() {
+        return this.templates.length;
+    }
+
+    public ShardRoutingDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public ShardFunction getShardFunction() {
+        return shardFunction;
+    }
+
+    /**
+     * 所有分片的JdbcTemplate，用于统一设置batchSize、fetchSize等
+     * @return
+     */
+    public List<JdbcTemplate> getShardTemplates() {
+        return List.of(this.templates);
+    }
+
+    /**
+     * 关闭由本类创建的线程池和所有分片的DataSource
+     * @throws SQLException
+     */
+    @Override
+    public void close() throws SQLException {
+        if (this.ownedExecutor != null) {
+            this.ownedExecutor.shutdown();
+        }
+        this.dataSource.close();
+    }
+}
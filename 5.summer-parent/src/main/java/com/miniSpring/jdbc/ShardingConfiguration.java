@@ -0,0 +1,97 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.annotation.Autowired;
+import com.miniSpring.annotation.Bean;
+import com.miniSpring.annotation.Configuration;
+import com.miniSpring.annotation.Value;
+import com.miniSpring.context.ApplicationContextUtils;
+import com.miniSpring.context.ConfigurableApplicationContext;
+import com.miniSpring.io.PropertyResolver;
+import com.miniSpring.jdbc.tx.DataSourceTransactionManager;
+import com.miniSpring.jdbc.tx.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ClassName: ShardingConfiguration
+ * Description:
+ * 分片数据源配置，使用时在启动类上@Import(ShardingConfiguration.class)，可以与JdbcConfiguration同时使用。格式如下
+ *      summer:
+ *        sharding:
+ *          username: sa （可选，各分片未配置时使用）
+ *          password:
+ *          driver-class-name:
+ *          maximum-pool-size: 10 （可选，每个分片的连接池大小，也是每个分片同时执行的并行查询数）
+ *          minimum-pool-size: 1
+ *          connection-timeout: 30000
+ *          shards:
+ *            - url: jdbc:mysql://shard0/db
+ *            - url: jdbc:mysql://shard1/db
+ *              username: app
+ * 分片键默认按ShardFunction.MODULO计算，容器中存在ShardFunction类型的Bean时使用该Bean；
+ * 分片事务使用@Transactional("shardedTransactionManager")（需要JdbcConfiguration中的TransactionalBeanPostProcessor），
+ * 事务绑定到第一次访问的分片
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 15:50
+ * @Version 1.0
+ */
+@Configuration
+public class ShardingConfiguration {
+    static final String SHARDS = "miniSpring.sharding.shards";
+
+    /**
+     * 按配置创建每个分片的连接池；ShardRoutingDataSource不单独注册为Bean，避免与JdbcConfiguration的DataSource按类型注入时冲突，
+     * 由ShardedJdbcTemplate关闭
+     */
+    @Bean(destroyMethod = "close")
+    ShardedJdbcTemplate shardedJdbcTemplate(
+            @Autowired(false) ShardFunction shardFunction,
+            @Value("${miniSpring.sharding.username:}") String username,
+            @Value("${miniSpring.sharding.password:}") String password,
+            @Value("${miniSpring.sharding.driver-class-name:}") String driver,
+            @Value("${miniSpring.sharding.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${miniSpring.sharding.minimum-pool-size:1}") int minimumPoolSize,
+            @Value("${miniSpring.sharding.connection-timeout:30000}") int connTimeout,
+            @Value("${miniSpring.datasource.track-connection-state:false}") boolean trackState,
+            @Value("${miniSpring.datasource.batch-size:1000}") int batchSize,
+            @Value("${miniSpring.datasource.fetch-size:0}") int fetchSize,
+            @Value("${miniSpring.datasource.statement-cache-size:32}") int statementCacheSize
+    ) {
+        //列表配置无法通过@Value注入，从PropertyResolver中读取 shards[i].xxx
+        PropertyResolver pr = ((ConfigurableApplicationContext) ApplicationContextUtils.getRequiredApplicationContext())
+                .getPropertyResolver();
+        int n = pr.getIndexedSize(SHARDS);
+        if (n == 0) {
+            throw new IllegalArgumentException(String.format("No shard configured at '%s'.", SHARDS));
+        }
+        List<DataSource> shards = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            String prefix = SHARDS + "[" + i + "].";
+            //未配置的项沿用sharding下的配置
+            shards.add(JdbcConfiguration.createDataSource(
+                    pr.getRequiredProperty(prefix + "url"),
+                    pr.getProperty(prefix + "username", username),
+                    pr.getProperty(prefix + "password", password),
+                    pr.getProperty(prefix + "driver-class-name", driver),
+                    pr.getProperty(prefix + "maximum-pool-size", int.class, maximumPoolSize),
+                    pr.getProperty(prefix + "minimum-pool-size", int.class, minimumPoolSize),
+                    pr.getProperty(prefix + "connection-timeout", int.class, connTimeout),
+                    false, trackState));
+        }
+        ShardedJdbcTemplate shardedJdbcTemplate = new ShardedJdbcTemplate(new ShardRoutingDataSource(shards),
+                shardFunction != null ? shardFunction : ShardFunction.MODULO, maximumPoolSize);
+        for (JdbcTemplate jdbcTemplate : shardedJdbcTemplate.getShardTemplates()) {
+            jdbcTemplate.setBatchSize(batchSize);
+            jdbcTemplate.setFetchSize(fetchSize);
+            jdbcTemplate.setStatementCacheSize(statementCacheSize);
+        }
+        return shardedJdbcTemplate;
+    }
+
+    @Bean
+    PlatformTransactionManager shardedTransactionManager(@Autowired ShardedJdbcTemplate shardedJdbcTemplate) {
+        return new DataSourceTransactionManager(shardedJdbcTemplate.getDataSource());
+    }
+}
@@ -0,0 +1,262 @@
+package com.miniSpring.jdbc;
+
+import jakarta.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * ClassName: SqlTables
+ * Description:
+ * 从SQL中粗略解析出涉及的表名（小写、去掉引号和schema前缀），用于缓存失效；无法确定时返回null，由调用方按最保守的方式处理
+ *  - writtenTables：INSERT/REPLACE/MERGE INTO t、UPDATE t、DELETE FROM t、TRUNCATE [TABLE] t
+ *  - readTables：SELECT语句中FROM（包括逗号分隔的多个表）和JOIN之后的表；WITH、SELECT ... FOR UPDATE不解析
+ *  - isKeyLookup/selectLabels：识别按主键查询单行的SELECT，用于事务内的IdentityMap
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 23:40
+ * @Version 1.0
+ */
+public final class SqlTables {
+    //FROM之后遇到这些关键字时表列表结束
+    static final Set<String> CLAUSE_KEYWORDS = Set.of("where", "join", "inner", "left", "right", "full", "cross",
+            "natural", "outer", "on", "using", "group", "order", "having", "limit", "offset", "fetch", "union",
+            "intersect", "except", "for", "window", "straight_join", "set", "values", "select");
+
+    private SqlTables() {
+    }
+
+    /**
+     * 解析DML语句修改的表
+     * @param sql
+     * @return 无法解析时返回null
+     */
+    @Nullable
+    public static Set<String> writtenTables(String sql) {
+        List<String> tokens = tokenize(sql);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        String first = tokens.get(0);
+        String table = null;
+        switch (first) {
+            case "insert", "replace", "merge", "upsert" -> table = tokenAfter(tokens, "into", 1);
+            case "update" -> {
+                //跳过 LOW_PRIORITY、IGNORE、ONLY 等修饰词
+                int i = 1;
+                while (i < tokens.size() && Set.of("low_priority", "ignore", "only").contains(tokens.get(i))) {
+                    i++;
+                }
+                table = i < tokens.size() ? tokens.get(i) : null;
+            }
+            case "delete" -> table = tokenAfter(tokens, "from", 1);
+            case "truncate" -> {
+                int i = tokens.size() > 1 && tokens.get(1).equals("table") ? 2 : 1;
+                table = i < tokens.size() ? tokens.get(i) : null;
+            }
+            default -> {
+                return null;
+            }
+        }
+        if (table == null || !isIdentifier(table)) {
+            return null;
+        }
+        Set<String> tables = new LinkedHashSet<>();
+        tables.add(normalize(table));
+        if (first.equals("delete") || first.equals("update")) {
+            //多表UPDATE/DELETE（如 DELETE t1 FROM t1 JOIN t2）时，其他表也可能被修改
+            collectFromAndJoin(tokens, tables);
+        }
+        return tables;
+    }
+
+    /**
+     * 解析SELECT语句读取的表
+     * @param sql
+     * @return 无法解析时返回null
+     */
+    @Nullable
+    public static Set<String> readTables(String sql) {
+        List<String> tokens = tokenize(sql);
+        if (tokens.isEmpty() || !tokens.get(0).equals("select")) {
+            return null;
+        }
+        for (int i = 0; i + 1 < tokens.size(); i++) {
+            if (tokens.get(i).equals("for") && tokens.get(i + 1).equals("update")) {
+                return null;
+            }
+        }
+        Set<String> tables = new LinkedHashSet<>();
+        collectFromAndJoin(tokens, tables);
+        return tables.isEmpty() ? null : tables;
+    }
+
+    static void collectFromAndJoin(List<String> tokens, Set<String> tables) {
+        for (int i = 0; i < tokens.size(); i++) {
+            String t = tokens.get(i);
+            if (t.equals("join") || t.equals("straight_join")) {
+                if (i + 1 < tokens.size() && isIdentifier(tokens.get(i + 1))) {
+                    tables.add(normalize(tokens.get(i + 1)));
+                }
+            } else if (t.equals("from")) {
+                //FROM a [AS] x, b y ...
+                int j = i + 1;
+                while (j < tokens.size() && isIdentifier(tokens.get(j))) {
+                    tables.add(normalize(tokens.get(j)));
+                    j++;
+                    if (j < tokens.size() && tokens.get(j).equals("as")) {
+                        j++;
+                    }
+                    if (j < tokens.size() && isIdentifier(tokens.get(j))) {
+                        //别名
+                        j++;
+                    }
+                    if (j < tokens.size() && tokens.get(j).equals(",")) {
+                        j++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    static String tokenAfter(List<String> tokens, String keyword, int from) {
+        for (int i = from; i + 1 < tokens.size(); i++) {
+            if (tokens.get(i).equals(keyword)) {
+                return tokens.get(i + 1);
+            }
+        }
+        return null;
+    }
+
+    static boolean isIdentifier(String token) {
+        char c = token.charAt(0);
+        return (Character.isLetter(c) || c == '_' || c == '"' || c == '`' || c == '[')
+                && !CLAUSE_KEYWORDS.contains(token);
+    }
+
+    /**
+     * 去掉引号和schema前缀
+     */
+    public static String normalize(String table) {
+        String name = table.replace("\"", "").replace("`", "").replace("[", "").replace("]", "");
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1) : name;
+    }
+
+    /**
+     * 切分为小写的标识符（可带引号和.）和单字符符号，跳过字符串常量和注释
+     */
+    static List<String> tokenize(String sql) {
+        List<String> tokens = new ArrayList<>();
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'') {
+                int end = sql.indexOf('\'', i + 1);
+                i = end < 0 ? n : end + 1;
+            } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i + 2);
+                i = end < 0 ? n : end + 1;
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '"' || c == '`' || c == '[') {
+                int start = i;
+                while (i < n) {
+                    char d = sql.charAt(i);
+                    if (d == '"' || d == '`' || d == '[') {
+                        //带引号的标识符
+                        char close = d == '[' ? ']' : d;
+                        int end = sql.indexOf(close, i + 1);
+                        i = end < 0 ? n : end + 1;
+                    } else if (Character.isLetterOrDigit(d) || d == '_' || d == '$' || d == '.') {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(sql.substring(start, i).toLowerCase());
+            } else {
+                tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 是否为按key查询单表的一行：SELECT ... FROM table [alias] WHERE [alias.]keyColumn = ?
+     * @param sql
+     * @param table
+     * @param keyColumn
+     * @return
+     */
+    public static boolean isKeyLookup(String sql, String table, String keyColumn) {
+        List<String> tokens = tokenize(sql);
+        if (!tokens.isEmpty() && tokens.get(tokens.size() - 1).equals(";")) {
+            tokens = tokens.subList(0, tokens.size() - 1);
+        }
+        int n = tokens.size();
+        //末尾为 WHERE key = ?
+        if (n < 6 || !tokens.get(0).equals("select") || !tokens.get(n - 1).equals("?") || !tokens.get(n - 2).equals("=")
+                || !tokens.get(n - 4).equals("where") || !normalize(tokens.get(n - 3)).equals(keyColumn.toLowerCase())) {
+            return false;
+        }
+        //只有一个FROM，之后只有表名和可选的别名
+        int from = tokens.indexOf("from");
+        if (from < 0 || tokens.lastIndexOf("from") != from || tokens.lastIndexOf("select") != 0) {
+            return false;
+        }
+        int tableTokens = n - 4 - from - 1;
+        if (tableTokens < 1 || tableTokens > 3 || !normalize(tokens.get(from + 1)).equals(normalize(table.toLowerCase()))) {
+            return false;
+        }
+        for (int i = from + 2; i < n - 4; i++) {
+            if (!tokens.get(i).equals("as") && !isIdentifier(tokens.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * SELECT列表中每一项的列名或别名（小写、去掉引号和表别名前缀）
+     * @param sql
+     * @return 包含*时返回null
+     */
+    @Nullable
+    public static List<String> selectLabels(String sql) {
+        List<String> tokens = tokenize(sql);
+        List<String> labels = new ArrayList<>();
+        int depth = 0;
+        String last = null;
+        for (int i = 1; i < tokens.size(); i++) {
+            String t = tokens.get(i);
+            if (t.equals("(")) {
+                depth++;
+            } else if (t.equals(")")) {
+                depth--;
+            } else if (depth == 0 && (t.equals(",") || t.equals("from"))) {
+                if (last != null) {
+                    labels.add(last);
+                }
+                last = null;
+                if (t.equals("from")) {
+                    break;
+                }
+            } else if (depth == 0 && t.equals("*")) {
+                return null;
+            } else if (depth == 0 && !t.equals("as") && !t.equals("distinct")) {
+                //alias.* 切分为 "alias." 和 "*"，由上面的分支处理
+                last = normalize(t);
+            }
+        }
+        return labels;
+    }
+}
@@ -0,0 +1,151 @@
+package com.miniSpring.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ClassName: StateTrackingDataSource
+ * Description:
+ * 包装连接池DataSource，返回的连接为StateTrackingConnection：在本地记录autoCommit、readOnly、隔离级别和catalog，
+ * 读取时直接返回记录值，设置的值与当前值相同时不再调用驱动，并统计省去的设置调用次数
+ *  - 连接池（HikariCP）在连接归还时会把这些状态恢复为配置的默认值，因此每次获取连接时autoCommit和readOnly的初始值已知
+ *  - 隔离级别和catalog初始未知，第一次读取或设置后才开始记录
+ *  - 通过SQL语句（如 SET autocommit = 0）修改的状态无法感知，不要混用
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 22:30
+ * @Version 1.0
+ */
+public class StateTrackingDataSource implements DataSource, AutoCloseable {
+    static final String[] KINDS = { "autoCommit", "readOnly", "isolation", "catalog" };
+    static final int AUTO_COMMIT = 0;
+    static final int READ_ONLY = 1;
+    static final int ISOLATION = 2;
+    static final int CATALOG = 3;
+
+    final Logger logger = LoggerFactory.getLogger(getClass());
+
+    final DataSource target;
+    //连接池为每个连接设置的默认值
+    final boolean defaultAutoCommit;
+    final boolean defaultReadOnly;
+    //按状态类型统计省去的设置调用次数
+    final LongAdder[] elided = new LongAdder[KINDS.length];
+
+    /**
+     * @param target 连接池
+     * @param defaultAutoCommit 连接池配置的autoCommit
+     * @param defaultReadOnly 连接池配置的readOnly
+     */
+    public StateTrackingDataSource(DataSource target, boolean defaultAutoCommit, boolean defaultReadOnly) {
+        this.target = target;
+        this.defaultAutoCommit = defaultAutoCommit;
+        this.defaultReadOnly = defaultReadOnly;
+        for (int i = 0; i < this.elided.length; i++) {
+            this.elided[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new StateTrackingConnection(this.target.getConnection(), this);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new StateTrackingConnection(this.target.getConnection(username, password), this);
+    }
+
+    void elided(int kind) {
+        this.elided[kind].increment();
+    }
+
+    /**
+     * 省去的设置调用总次数
+     * @return
+     */
+    public long getElidedCallCount() {
+        long sum = 0;
+        for (LongAdder adder : this.elided) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    /**
+     * 按状态类型（autoCommit、readOnly、isolation、catalog）返回省去的设置调用次数
+     * @return
+     */
+    public Map<String, Long> getElidedCallCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (int i = 0; i < KINDS.length; i++) {
+            counts.put(KINDS[i], this.elided[i].sum());
+        }
+        return counts;
+    }
+
+    public DataSource getTarget() {
+        return target;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("elided connection state calls: {}", getElidedCallCounts());
+        }
+        SQLException failure = ReadWriteRoutingDataSource.closeQuietly(this.target, null);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return this.target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        this.target.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        this.target.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return this.target.getLoginTimeout();
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return this.target.getParentLogger();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        }
+        if (iface.isInstance(this.target)) {
+            return (T) this.target;
+        }
+        return this.target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || iface.isInstance(this.target) || this.target.isWrapperFor(iface);
+    }
+}
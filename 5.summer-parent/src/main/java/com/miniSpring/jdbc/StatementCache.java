@@ -0,0 +1,171 @@
+package com.miniSpring.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ClassName: StatementCache
+ * Description:
+ * 一个Connection上的PreparedStatement LRU缓存，key为SQL、是否返回自增key以及游标类型
+ *  - 只在同一个线程中使用（跟随事务连接），不需要同步
+ *  - 同一条语句正在使用时（例如在RowCallbackHandler中再次执行同一SQL）会另外创建一个不缓存的PreparedStatement
+ *  - Connection归还连接池前必须调用close()，连接池也会关闭该连接上打开的Statement
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 20:10
+ * @Version 1.0
+ */
+public class StatementCache implements AutoCloseable {
+    final int maxSize;
+    //按访问顺序排列的LRU
+    final LinkedHashMap<StatementKey, Entry> entries;
+    //PreparedStatement -> Entry，用于release时查找
+    final Map<PreparedStatement, Entry> byStatement = new IdentityHashMap<>();
+    long hits = 0;
+    long misses = 0;
+
+    public StatementCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 获取一个可用的PreparedStatement，使用完毕后必须调用release()
+     * @param con
+     * @param key
+     * @return
+     * @throws SQLException
+     */
+    public PreparedStatement acquire(Connection con, StatementKey key) throws SQLException {
+        Entry entry = this.entries.get(key);
+        if (entry != null) {
+            if (entry.inUse) {
+                //正在使用，创建一个不缓存的
+                this.misses++;
+                return key.prepare(con);
+            }
+            this.hits++;
+            entry.inUse = true;
+            return entry.statement;
+        }
+        this.misses++;
+        entry = new Entry(key.prepare(con));
+        entry.inUse = true;
+        this.entries.put(key, entry);
+        this.byStatement.put(entry.statement, entry);
+        evict();
+        return entry.statement;
+    }
+
+    /**
+     * 是否为缓存中的PreparedStatement（缓存中的不能由调用方关闭）
+     * @param ps
+     * @return
+     */
+    public boolean isCached(PreparedStatement ps) {
+        return this.byStatement.containsKey(ps);
+    }
+
+    /**
+     * 归还PreparedStatement：清空参数以便下次复用，已被淘汰的则直接关闭
+     * @param ps
+     * @throws SQLException
+     */
+    public void release(PreparedStatement ps) throws SQLException {
+        Entry entry = this.byStatement.get(ps);
+        if (entry == null) {
+            ps.close();
+            return;
+        }
+        entry.inUse = false;
+        if (entry.evicted) {
+            this.byStatement.remove(ps);
+            ps.close();
+        } else {
+            ps.clearParameters();
+        }
+    }
+
+    /**
+     * 超出容量时淘汰最久未使用的语句，正在使用的语句等release时再关闭
+     * @throws SQLException
+     */
+    void evict() throws SQLException {
+        Iterator<Entry> it = this.entries.values().iterator();
+        while (this.entries.size() > this.maxSize && it.hasNext()) {
+            Entry e = it.next();
+            it.remove();
+            if (e.inUse) {
+                e.evicted = true;
+            } else {
+                this.byStatement.remove(e.statement);
+                e.statement.close();
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * 关闭所有缓存的PreparedStatement
+     * @throws SQLException 第一个关闭失败的异常，其余作为suppressed
+     */
+    @Override
+    public void close() throws SQLException {
+        SQLException failure = null;
+        for (PreparedStatement ps : this.byStatement.keySet()) {
+            try {
+                ps.close();
+            } catch (SQLException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        this.byStatement.clear();
+        this.entries.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    static class Entry {
+        final PreparedStatement statement;
+        boolean inUse = false;
+        boolean evicted = false;
+
+        Entry(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /**
+     * 缓存的key
+     * @param sql
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS或Statement.NO_GENERATED_KEYS
+     * @param resultSetType
+     * @param resultSetConcurrency
+     */
+    public record StatementKey(String sql, int autoGeneratedKeys, int resultSetType, int resultSetConcurrency) {
+
+        PreparedStatement prepare(Connection con) throws SQLException {
+            if (this.autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS) {
+                return con.prepareStatement(this.sql, Statement.RETURN_GENERATED_KEYS);
+            }
+            return con.prepareStatement(this.sql, this.resultSetType, this.resultSetConcurrency);
+        }
+    }
+}
@@ -0,0 +1,483 @@
+package com.miniSpring.jdbc.entity;
+
+import com.miniSpring.annotation.Column;
+import com.miniSpring.annotation.Id;
+import com.miniSpring.annotation.Table;
+import com.miniSpring.exception.DataAccessException;
+import com.miniSpring.jdbc.ParameterizedSetter;
+import com.miniSpring.jdbc.SqlTables;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * ClassName: EntityMetadata
+ * Description:
+ * 实体类的元数据：表名、主键、列，以及预先生成的INSERT/UPDATE/SELECT/DELETE语句和绑定参数的setter
+ *  - 按Class缓存（ClassValue），反射和SQL拼接只在第一次使用时做一次
+ *  - 每一列按字段类型生成绑定方法：基本类型通过MethodHandle.invokeExact读取后调用setLong/setInt等，不经过装箱；
+ *    java.time类型转换为java.sql类型，枚举按name()绑定，null按字段类型对应的SQL类型调用setNull
+ *  - SELECT语句为列名与字段名不同的列加上别名（column AS field），由BeanRowMapper映射为实体
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 10:50
+ * @Version 1.0
+ */
+public class EntityMetadata<T> {
+    static final ClassValue<EntityMetadata<?>> CACHE = new ClassValue<>() {
+        @Override
+        protected EntityMetadata<?> computeValue(Class<?> type) {
+            return new EntityMetadata<>(type);
+        }
+    };
+
+    //按SQL缓存的是否为主键查询的判断结果数量上限
+    static final int MAX_ID_LOOKUP_SQL = 256;
+
+    final Class<T> entityClass;
+    final String tableName;
+    //小写、去掉引号和schema前缀，与SqlTables解析出的表名一致
+    final String normalizedTableName;
+    final ColumnMetadata id;
+    final boolean generatedId;
+    //所有列，主键在第一个
+    final List<ColumnMetadata> columns;
+    //写回自增主键，(Object, Number)void；主键不是自增时为null
+    final MethodHandle idWriter;
+
+    final String insertSql;
+    final String updateSql;
+    final String selectByIdSql;
+    final String selectAllSql;
+    final String deleteByIdSql;
+    final ParameterizedSetter<T> insertSetter;
+    final ParameterizedSetter<T> updateSetter;
+    //SQL -> 是否为返回完整实体的主键查询
+    final Map<String, Boolean> idLookups = new ConcurrentHashMap<>();
+
+    /**
+     * 获取clazz对应的EntityMetadata（缓存）
+     * @param clazz 标注了@Table的类
+     * @return
+     * @param <T>
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMetadata<T> of(Class<T> clazz) {
+        return (EntityMetadata<T>) CACHE.get(clazz);
+    }
+
+    EntityMetadata(Class<T> entityClass) {
+        this.entityClass = entityClass;
+        Table table = entityClass.getAnnotation(Table.class);
+        if (table == null) {
+            throw new DataAccessException(String.format("Entity class %s is not annotated with @Table.",
+                    entityClass.getName()));
+        }
+        this.tableName = table.value();
+        this.normalizedTableName = SqlTables.normalize(table.value().toLowerCase());
+        MethodHandles.Lookup lookup = lookup(entityClass);
+        ColumnMetadata id = null;
+        Field idField = null;
+        List<ColumnMetadata> columns = new ArrayList<>();
+        //父类的字段在前
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = entityClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+        for (Class<?> c : hierarchy) {
+            for (Field f : c.getDeclaredFields()) {
+                int mod = f.getModifiers();
+                if (Modifier.isStatic(mod) || Modifier.isTransient(mod) || f.isSynthetic()) {
+                    continue;
+                }
+                Column column = f.getAnnotation(Column.class);
+                String columnName = column == null || column.value().isEmpty() ? f.getName() : column.value();
+                ColumnMetadata cm = new ColumnMetadata(columnName, f.getName(), f.getType(),
+                        column == null || column.insertable(), column == null || column.updatable(),
+                        binder(lookup, f));
+                if (f.isAnnotationPresent(Id.class)) {
+                    if (id != null) {
+                        throw new DataAccessException(String.format("Multiple @Id fields found in %s.",
+                                entityClass.getName()));
+                    }
+                    id = cm;
+                    idField = f;
+                } else {
+                    columns.add(cm);
+                }
+            }
+        }
+        if (id == null) {
+            throw new DataAccessException(String.format("No @Id field found in %s.", entityClass.getName()));
+        }
+        columns.add(0, id);
+        this.id = id;
+        this.columns = List.copyOf(columns);
+        this.generatedId = idField.getAnnotation(Id.class).generated();
+        this.idWriter = this.generatedId ? idWriter(lookup, idField) : null;
+
+        List<ColumnMetadata> insertColumns = this.columns.stream()
+                .filter(c -> c.insertable && !(c == this.id && this.generatedId)).toList();
+        List<ColumnMetadata> updateColumns = this.columns.stream()
+                .filter(c -> c.updatable && c != this.id).toList();
+        this.insertSql = String.format("INSERT INTO %s (%s) VALUES (%s)", this.tableName,
+                insertColumns.stream().map(ColumnMetadata::columnName).collect(Collectors.joining(", ")),
+                insertColumns.stream().map(c -> "?").collect(Collectors.joining(", ")));
+        this.updateSql = updateColumns.isEmpty() ? null : String.format("UPDATE %s SET %s WHERE %s = ?",
+                this.tableName,
+                updateColumns.stream().map(c -> c.columnName + " = ?").collect(Collectors.joining(", ")),
+                this.id.columnName);
+        String selectColumns = this.columns.stream()
+                .map(c -> c.columnName.equals(c.fieldName) ? c.columnName : c.columnName + " AS " + c.fieldName)
+                .collect(Collectors.joining(", "));
+        this.selectAllSql = String.format("SELECT %s FROM %s", selectColumns, this.tableName);
+        this.selectByIdSql = this.selectAllSql + " WHERE " + this.id.columnName + " = ?";
+        this.deleteByIdSql = String.format("DELETE FROM %s WHERE %s = ?", this.tableName, this.id.columnName);
+        this.insertSetter = setter(insertColumns);
+        List<ColumnMetadata> updateParams = new ArrayList<>(updateColumns);
+        updateParams.add(this.id);
+        this.updateSetter = setter(updateParams);
+    }
+
+    /**
+     * 按顺序绑定columns对应的字段
+     */
+    ParameterizedSetter<T> setter(List<ColumnMetadata> columns) {
+        final ParamBinder[] binders = columns.stream().map(ColumnMetadata::binder).toArray(ParamBinder[]::new);
+        return (PreparedStatement ps, T entity) -> {
+            for (int i = 0; i < binders.length; i++) {
+                try {
+                    binders[i].bind(ps, i + 1, entity);
+                } catch (SQLException | RuntimeException e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new DataAccessException(String.format("Cannot read column %s of %s.",
+                            columns.get(i).columnName, this.entityClass.getName()), e);
+                }
+            }
+        };
+    }
+
+    /**
+     * 是否为按主键查询完整实体的SQL：单表、WHERE id = ?，且SELECT *或包含所有列；结果按SQL缓存
+     * @param sql
+     * @return
+     */
+    public boolean isIdLookup(String sql) {
+        if (sql.equals(this.selectByIdSql)) {
+            return true;
+        }
+        Boolean lookup = this.idLookups.get(sql);
+        if (lookup == null) {
+            lookup = parseIdLookup(sql);
+            if (this.idLookups.size() < MAX_ID_LOOKUP_SQL) {
+                this.idLookups.put(sql, lookup);
+            }
+        }
+        return lookup;
+    }
+
+    boolean parseIdLookup(String sql) {
+        if (!SqlTables.isKeyLookup(sql, this.tableName, this.id.columnName)) {
+            return false;
+        }
+        List<String> labels = SqlTables.selectLabels(sql);
+        if (labels == null) {
+            return true;
+        }
+        //只查询了部分列的结果不能作为完整实体缓存
+        for (ColumnMetadata c : this.columns) {
+            if (!labels.contains(c.fieldName.toLowerCase()) && !labels.contains(c.columnName.toLowerCase())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将生成的key写回主键字段
+     * @param entity
+     * @param key
+     */
+    void writeGeneratedId(T entity, Number key) {
+        try {
+            this.idWriter.invokeExact((Object) entity, key);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DataAccessException(String.format("Cannot write generated id to %s.", this.entityClass.getName()), e);
+        }
+    }
+
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getIdColumn() {
+        return id.columnName;
+    }
+
+    public boolean isGeneratedId() {
+        return generatedId;
+    }
+
+    public String getInsertSql() {
+        return insertSql;
+    }
+
+    public String getUpdateSql() {
+        return updateSql;
+    }
+
+    public String getSelectByIdSql() {
+        return selectByIdSql;
+    }
+
+    public String getSelectAllSql() {
+        return selectAllSql;
+    }
+
+    public String getDeleteByIdSql() {
+        return deleteByIdSql;
+    }
+
+    public ParameterizedSetter<T> getInsertSetter() {
+        return insertSetter;
+    }
+
+    public ParameterizedSetter<T> getUpdateSetter() {
+        return updateSetter;
+    }
+
+    /**
+     * 读取实体的主键值
+     * @param entity
+     * @return
+     */
+    public Object getId(T entity) {
+        try {
+            return this.id.binder.read(entity);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DataAccessException(String.format("Cannot read id of %s.", this.entityClass.getName()), e);
+        }
+    }
+
+    static MethodHandles.Lookup lookup(Class<?> clazz) {
+        try {
+            return MethodHandles.privateLookupIn(clazz, MethodHandles.lookup());
+        } catch (IllegalAccessException | SecurityException e) {
+            return MethodHandles.lookup();
+        }
+    }
+
+    /**
+     * 按字段类型生成绑定方法
+     */
+    static ParamBinder binder(MethodHandles.Lookup lookup, Field f) {
+        final MethodHandle getter;
+        try {
+            getter = lookup.unreflectGetter(f);
+        } catch (IllegalAccessException e) {
+            throw new DataAccessException(String.format("Cannot access %s.%s", f.getDeclaringClass().getName(),
+                    f.getName()), e);
+        }
+        final Class<?> type = f.getType();
+        final MethodHandle o = getter.asType(MethodType.methodType(Object.class, Object.class));
+        if (type.isPrimitive()) {
+            final MethodHandle h = getter.asType(MethodType.methodType(type, Object.class));
+            if (type == long.class) {
+                return binder(o, (ps, i, e) -> ps.setLong(i, (long) h.invokeExact(e)));
+            } else if (type == int.class) {
+                return binder(o, (ps, i, e) -> ps.setInt(i, (int) h.invokeExact(e)));
+            } else if (type == double.class) {
+                return binder(o, (ps, i, e) -> ps.setDouble(i, (double) h.invokeExact(e)));
+            } else if (type == float.class) {
+                return binder(o, (ps, i, e) -> ps.setFloat(i, (float) h.invokeExact(e)));
+            } else if (type == short.class) {
+                return binder(o, (ps, i, e) -> ps.setShort(i, (short) h.invokeExact(e)));
+            } else if (type == byte.class) {
+                return binder(o, (ps, i, e) -> ps.setByte(i, (byte) h.invokeExact(e)));
+            } else if (type == boolean.class) {
+                return binder(o, (ps, i, e) -> ps.setBoolean(i, (boolean) h.invokeExact(e)));
+            }
+            //char
+            return binder(o, (ps, i, e) -> ps.setString(i, String.valueOf(o.invokeExact(e))));
+        }
+        final int sqlType = sqlType(type);
+        if (type == String.class) {
+            return binder(o, (ps, i, e) -> {
+                Object v = (Object) o.invokeExact(e);
+                if (v == null) {
+                    ps.setNull(i, sqlType);
+                } else {
+                    ps.setString(i, (String) v);
+                }
+            });
+        } else if (type == Long.class) {
+            return binder(o, (ps, i, e) -> {
+                Object v = (Object) o.invokeExact(e);
+                if (v == null) {
+                    ps.setNull(i, sqlType);
+                } else {
+                    ps.setLong(i, (Long) v);
+                }
+            });
+        } else if (type == Integer.class) {
+            return binder(o, (ps, i, e) -> {
+                Object v = (Object) o.invokeExact(e);
+                if (v == null) {
+                    ps.setNull(i, sqlType);
+                } else {
+                    ps.setInt(i, (Integer) v);
+                }
+            });
+        }
+        return binder(o, (ps, i, e) -> {
+            Object v = (Object) o.invokeExact(e);
+            if (v == null) {
+                ps.setNull(i, sqlType);
+            } else {
+                ps.setObject(i, toJdbcValue(v));
+            }
+        });
+    }
+
+    static ParamBinder binder(MethodHandle reader, ParamBinder.Bind bind) {
+        return new ParamBinder(reader, bind);
+    }
+
+    static int sqlType(Class<?> type) {
+        if (type == String.class || type.isEnum() || type == Character.class) {
+            return Types.VARCHAR;
+        } else if (type == Long.class) {
+            return Types.BIGINT;
+        } else if (type == Integer.class) {
+            return Types.INTEGER;
+        } else if (type == Short.class) {
+            return Types.SMALLINT;
+        } else if (type == Byte.class) {
+            return Types.TINYINT;
+        } else if (type == Double.class) {
+            return Types.DOUBLE;
+        } else if (type == Float.class) {
+            return Types.REAL;
+        } else if (type == Boolean.class) {
+            return Types.BOOLEAN;
+        } else if (type == BigDecimal.class) {
+            return Types.NUMERIC;
+        } else if (type == byte[].class) {
+            return Types.VARBINARY;
+        } else if (type == LocalDate.class) {
+            return Types.DATE;
+        } else if (type == LocalTime.class) {
+            return Types.TIME;
+        } else if (type == LocalDateTime.class || type == Instant.class || type == Timestamp.class
+                || type == java.util.Date.class) {
+            return Types.TIMESTAMP;
+        }
+        return Types.OTHER;
+    }
+
+    /**
+     * 转换为驱动普遍支持的类型，与BeanRowMapper的读取方式对应
+     */
+    static Object toJdbcValue(Object v) {
+        if (v instanceof Enum<?> e) {
+            return e.name();
+        } else if (v instanceof Character c) {
+            return c.toString();
+        } else if (v instanceof LocalDateTime t) {
+            return Timestamp.valueOf(t);
+        } else if (v instanceof Instant t) {
+            return Timestamp.from(t);
+        } else if (v instanceof LocalDate d) {
+            return java.sql.Date.valueOf(d);
+        } else if (v instanceof LocalTime t) {
+            return java.sql.Time.valueOf(t);
+        } else if (v instanceof java.util.Date d && !(v instanceof Timestamp)) {
+            return new Timestamp(d.getTime());
+        }
+        return v;
+    }
+
+    /**
+     * 生成写回自增主键的MethodHandle，按字段类型转换Number
+     */
+    static MethodHandle idWriter(MethodHandles.Lookup lookup, Field f) {
+        if (Modifier.isFinal(f.getModifiers())) {
+            throw new DataAccessException(String.format("Generated @Id field %s.%s must not be final.",
+                    f.getDeclaringClass().getName(), f.getName()));
+        }
+        try {
+            MethodHandle setter = lookup.unreflectSetter(f);
+            Class<?> type = f.getType();
+            MethodHandle convert;
+            if (type == long.class || type == Long.class) {
+                convert = lookup.findVirtual(Number.class, "longValue", MethodType.methodType(long.class));
+            } else if (type == int.class || type == Integer.class) {
+                convert = lookup.findVirtual(Number.class, "intValue", MethodType.methodType(int.class));
+            } else if (type == String.class) {
+                convert = lookup.findVirtual(Object.class, "toString", MethodType.methodType(String.class));
+            } else if (Number.class.isAssignableFrom(type)) {
+                convert = MethodHandles.identity(Number.class);
+            } else {
+                throw new DataAccessException(String.format("Unsupported generated @Id type %s in %s.",
+                        type.getName(), f.getDeclaringClass().getName()));
+            }
+            //(Object, Number)void
+            MethodHandle adapted = MethodHandles.filterArguments(setter.asType(
+                    MethodType.methodType(void.class, Object.class, convert.type().returnType())), 1, convert);
+            return adapted.asType(MethodType.methodType(void.class, Object.class, Number.class));
+        } catch (IllegalAccessException | NoSuchMethodException e) {
+            throw new DataAccessException(String.format("Cannot access %s.%s", f.getDeclaringClass().getName(),
+                    f.getName()), e);
+        }
+    }
+
+    /**
+     * 一列的元数据
+     */
+    record ColumnMetadata(String columnName, String fieldName, Class<?> type, boolean insertable, boolean updatable,
+                          ParamBinder binder) {
+    }
+
+    /**
+     * 读取字段并绑定到PreparedStatement：reader为 (Object)Object 的字段读取方法
+     */
+    record ParamBinder(MethodHandle reader, Bind bind) {
+        void bind(PreparedStatement ps, int index, Object entity) throws Throwable {
+            this.bind.bind(ps, index, entity);
+        }
+
+        Object read(Object entity) throws Throwable {
+            return (Object) this.reader.invokeExact(entity);
+        }
+
+        @FunctionalInterface
+        interface Bind {
+            void bind(PreparedStatement ps, int index, Object entity) throws Throwable;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.miniSpring.jdbc.entity;
+
+import com.miniSpring.exception.DataAccessException;
+import com.miniSpring.jdbc.BeanRowMapper;
+import com.miniSpring.jdbc.JdbcTemplate;
+import jakarta.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ClassName: EntityTemplate
+ * Description:
+ * 基于@Table/@Id/@Column的实体增删改查，SQL和参数绑定由EntityMetadata按类生成一次，执行交给JdbcTemplate：
+ *  - insert/update通过类型化的setter绑定参数，不创建Object[]
+ *  - insertAll/updateAll使用JDBC批处理（batchSize条一批），自增主键按顺序写回实体
+ *  - findById/findAll由BeanRowMapper映射为实体；事务中findById使用IdentityMap，重复查询返回同一个实例
+ * 若当前有事务则加入当前事务
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 11:20
+ * @Version 1.0
+ */
+public class EntityTemplate {
+    final JdbcTemplate jdbcTemplate;
+
+    public EntityTemplate(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 插入实体；主键为自增时将生成的key写回实体
+     * @param entity
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> void insert(T entity) throws DataAccessException {
+        EntityMetadata<T> meta = metadata(entity);
+        if (meta.generatedId) {
+            Number key = this.jdbcTemplate.updateItemAndReturnGeneratedKey(meta.insertSql, entity, meta.insertSetter);
+            meta.writeGeneratedId(entity, key);
+        } else {
+            this.jdbcTemplate.updateItem(meta.insertSql, entity, meta.insertSetter);
+        }
+    }
+
+    /**
+     * 批量插入同一类型的实体；主键为自增时按顺序将生成的key写回实体
+     * @param entities
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> void insertAll(Collection<T> entities) throws DataAccessException {
+        if (entities.isEmpty()) {
+            return;
+        }
+        List<T> list = entities instanceof List<T> l ? l : new ArrayList<>(entities);
+        EntityMetadata<T> meta = metadata(list.get(0));
+        if (meta.generatedId) {
+            long[] keys = this.jdbcTemplate.batchInsertReturningKeys(meta.insertSql, list, meta.insertSetter);
+            for (int i = 0; i < keys.length; i++) {
+                meta.writeGeneratedId(list.get(i), keys[i]);
+            }
+        } else {
+            this.jdbcTemplate.batchUpdate(meta.insertSql, list, meta.insertSetter);
+        }
+    }
+
+    /**
+     * 按主键更新所有updatable的列
+     * @param entity
+     * @return 影响行数
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> int update(T entity) throws DataAccessException {
+        EntityMetadata<T> meta = metadata(entity);
+        return this.jdbcTemplate.updateItem(updateSql(meta), entity, meta.updateSetter);
+    }
+
+    /**
+     * 批量按主键更新同一类型的实体
+     * @param entities
+     * @return 每个批次的影响行数
+     * @param <T>
+     * @throws DataAccessException
+     */
+    public <T> int[][] updateAll(Collection<T> entities) throws DataAccessException {
+        if (entities.isEmpty()) {
+            return new int[0][];
+        }
+        EntityMetadata<T> meta = metadata(entities.iterator().next());
+        return this.jdbcTemplate.batchUpdate(updateSql(meta), entities, meta.updateSetter);
+    }
+
+    /**
+     * 按主键查询
+     * @param clazz
+     * @param id
+     * @return 不存在时返回null
+     * @param <T>
+     * @throws DataAccessException
+     */
+    @Nullable
+    public <T> T findById(Class<T> clazz, Object id) throws DataAccessException {
+        EntityMetadata<T> meta = EntityMetadata.of(clazz);
+        IdentityMap identityMap = this.jdbcTemplate.isIdentityMapEnabled() ? IdentityMap.current() : null;
+        if (identityMap != null) {
+            return identityMap.get(meta, id, () -> selectById(meta, id));
+        }
+        return selectById(meta, id);
+    }
+
+    <T> T selectById(EntityMetadata<T> meta, Object id) {
+        List<T> list = this.jdbcTemplate.queryForList(meta.selectByIdSql, BeanRowMapper.of(meta.entityClass),
+                new Object[] { id });
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    public <T> List<T> findAll(Class<T> clazz) throws DataAccessException {
+        EntityMetadata<T> meta = EntityMetadata.of(clazz);
+        return this.jdbcTemplate.queryForList(meta.selectAllSql, BeanRowMapper.of(clazz), new Object[0]);
+    }
+
+    /**
+     * 按主键删除
+     * @param clazz
+     * @param id
+     * @return 影响行数
+     * @throws DataAccessException
+     */
+    public int deleteById(Class<?> clazz, Object id) throws DataAccessException {
+        return this.jdbcTemplate.update(EntityMetadata.of(clazz).deleteByIdSql, id);
+    }
+
+    public <T> int delete(T entity) throws DataAccessException {
+        EntityMetadata<T> meta = metadata(entity);
+        return this.jdbcTemplate.update(meta.deleteByIdSql, meta.getId(entity));
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> EntityMetadata<T> metadata(T entity) {
+        return (EntityMetadata<T>) EntityMetadata.of(entity.getClass());
+    }
+
+    static String updateSql(EntityMetadata<?> meta) {
+        if (meta.updateSql == null) {
+            throw new DataAccessException(String.format("Entity %s has no updatable columns.",
+                    meta.entityClass.getName()));
+        }
+        return meta.updateSql;
+    }
+}
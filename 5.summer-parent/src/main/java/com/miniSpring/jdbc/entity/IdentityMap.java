@@ -0,0 +1,118 @@
+package com.miniSpring.jdbc.entity;
+
+import com.miniSpring.jdbc.SqlTables;
+import com.miniSpring.jdbc.tx.TransactionalUtils;
+import jakarta.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * ClassName: IdentityMap
+ * Description:
+ * 事务内的一级缓存：同一事务中按主键重复查询@Table实体时返回已映射的同一个实例
+ *  - 绑定在TransactionStatus上，随事务提交或回滚一起丢弃，不同事务之间不共享
+ *  - 通过JdbcTemplate修改某张表时丢弃该表的所有实例；无法解析表名的DML丢弃所有实例
+ *  - 直接通过Connection执行的修改无法感知
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 13:30
+ * @Version 1.0
+ */
+public class IdentityMap {
+    //表名 -> (实体类, 主键) -> 实例
+    final Map<String, Map<Key, Object>> tables = new HashMap<>();
+    long hits;
+    long misses;
+
+    /**
+     * 获取当前事务的IdentityMap，不存在则创建
+     * @return 不在事务中时返回null
+     */
+    @Nullable
+    public static IdentityMap current() {
+        if (!TransactionalUtils.isTransactionActive()) {
+            return null;
+        }
+        IdentityMap map = TransactionalUtils.getResource(IdentityMap.class);
+        if (map == null) {
+            map = new IdentityMap();
+            TransactionalUtils.bindResource(IdentityMap.class, map);
+        }
+        return map;
+    }
+
+    /**
+     * 当前事务执行DML后调用，丢弃该DML修改的表的实例
+     * @param sql 为null（执行了未知的SQL）时丢弃所有实例
+     */
+    public static void invalidateCurrent(@Nullable String sql) {
+        IdentityMap map = TransactionalUtils.getResource(IdentityMap.class);
+        if (map != null && !map.tables.isEmpty()) {
+            map.invalidate(sql == null ? null : SqlTables.writtenTables(sql));
+        }
+    }
+
+    /**
+     * 返回已缓存的实例，不存在时由loader查询并缓存
+     * @param meta
+     * @param id
+     * @param loader
+     * @return
+     * @param <T>
+     */
+    public <T> T get(EntityMetadata<T> meta, Object id, Supplier<T> loader) {
+        Map<Key, Object> entities = this.tables.computeIfAbsent(meta.normalizedTableName, t -> new HashMap<>());
+        Key key = new Key(meta.entityClass, normalizeId(id));
+        Object entity = entities.get(key);
+        if (entity != null) {
+            this.hits++;
+            return meta.entityClass.cast(entity);
+        }
+        this.misses++;
+        T loaded = loader.get();
+        if (loaded != null) {
+            //loader执行期间可能修改了表，重新获取
+            this.tables.computeIfAbsent(meta.normalizedTableName, t -> new HashMap<>()).put(key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 丢弃表的所有实例
+     * @param tables 为null时丢弃所有实例
+     */
+    public void invalidate(@Nullable Set<String> tables) {
+        if (tables == null) {
+            this.tables.clear();
+        } else {
+            tables.forEach(this.tables::remove);
+        }
+    }
+
+    public int size() {
+        return this.tables.values().stream().mapToInt(Map::size).sum();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * 整数主键统一为Long，使 1 与 1L 对应同一个实例
+     */
+    static Object normalizeId(Object id) {
+        if (id instanceof Integer || id instanceof Short || id instanceof Byte) {
+            return ((Number) id).longValue();
+        }
+        return id;
+    }
+
+    record Key(Class<?> type, Object id) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.miniSpring.jdbc.namedparam;
+
+import com.miniSpring.exception.DataAccessException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ClassName: BeanPropertySqlParameterSource
+ * Description:
+ * 从JavaBean的getter（getXxx/isXxx）或record的组件中读取命名参数，
+ * 每个Class的 属性名 -> getter 只解析一次
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 20:43
+ * @Version 1.0
+ */
+public class BeanPropertySqlParameterSource implements SqlParameterSource {
+
+    //按Class缓存getter，类型已适配为 (Object)Object
+    static final ClassValue<Map<String, MethodHandle>> GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, MethodHandle> computeValue(Class<?> type) {
+            return resolveGetters(type);
+        }
+    };
+
+    final Object bean;
+    final Map<String, MethodHandle> getters;
+
+    public BeanPropertySqlParameterSource(Object bean) {
+        this.bean = bean;
+        this.getters = GETTERS.get(bean.getClass());
+    }
+
+    @Override
+    public boolean hasValue(String name) {
+        return this.getters.containsKey(name);
+    }
+
+    @Override
+    public Object getValue(String name) {
+        MethodHandle getter = this.getters.get(name);
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return (Object) getter.invokeExact(this.bean);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new DataAccessException(String.format("Cannot read property %s of %s", name,
+                    this.bean.getClass().getName()), t);
+        }
+    }
+
+    static Map<String, MethodHandle> resolveGetters(Class<?> type) {
+        Map<String, MethodHandle> getters = new HashMap<>();
+        //类本身可能不是public的，统一setAccessible后再unreflect
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            if (type.isRecord()) {
+                for (RecordComponent rc : type.getRecordComponents()) {
+                    Method accessor = rc.getAccessor();
+                    accessor.setAccessible(true);
+                    getters.put(rc.getName(), adapt(lookup.unreflect(accessor)));
+                }
+                return getters;
+            }
+            for (Method m : type.getMethods()) {
+                if (m.getParameterCount() != 0 || m.getReturnType() == void.class
+                        || Modifier.isStatic(m.getModifiers()) || m.getDeclaringClass() == Object.class) {
+                    continue;
+                }
+                String name = m.getName();
+                String property = null;
+                if (name.startsWith("get") && name.length() > 3) {
+                    property = name.substring(3);
+                } else if (name.startsWith("is") && name.length() > 2
+                        && (m.getReturnType() == boolean.class || m.getReturnType() == Boolean.class)) {
+                    property = name.substring(2);
+                }
+                if (property != null) {
+                    m.setAccessible(true);
+                    getters.put(Character.toLowerCase(property.charAt(0)) + property.substring(1),
+                            adapt(lookup.unreflect(m)));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new DataAccessException(String.format("Cannot access properties of %s", type.getName()), e);
+        }
+        return getters;
+    }
+
+    static MethodHandle adapt(MethodHandle getter) {
+        return getter.asType(MethodType.methodType(Object.class, Object.class));
+    }
+}
@@ -0,0 +1,31 @@
+package com.miniSpring.jdbc.namedparam;
+
+import java.util.Map;
+
+/**
+ * ClassName: MapSqlParameterSource
+ * Description:
+ * 从Map中读取命名参数
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 20:41
+ * @Version 1.0
+ */
+public class MapSqlParameterSource implements SqlParameterSource {
+    static final MapSqlParameterSource EMPTY = new MapSqlParameterSource(Map.of());
+
+    final Map<String, ?> values;
+
+    public MapSqlParameterSource(Map<String, ?> values) {
+        this.values = values;
+    }
+
+    @Override
+    public boolean hasValue(String name) {
+        return this.values.containsKey(name);
+    }
+
+    @Override
+    public Object getValue(String name) {
+        return this.values.get(name);
+    }
+}
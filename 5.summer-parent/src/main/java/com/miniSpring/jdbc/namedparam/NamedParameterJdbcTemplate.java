@@ -0,0 +1,170 @@
+package com.miniSpring.jdbc.namedparam;
+
+import com.miniSpring.exception.DataAccessException;
+import com.miniSpring.jdbc.JdbcTemplate;
+import com.miniSpring.jdbc.ResultSetExtractor;
+import com.miniSpring.jdbc.RowCallbackHandler;
+import com.miniSpring.jdbc.RowMapper;
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
+
+/**
+ * ClassName: NamedParameterJdbcTemplate
+ * Description:
+ * 支持 :name 命名参数的JdbcTemplate，展开为?后交给JdbcTemplate执行
+ *  - params可以是Map<String, ?>、SqlParameterSource或JavaBean/record（按getter取值），为null表示没有参数
+ *  - 集合或Object[]参数展开为 ?, ?, ... ，用于 IN (:ids)
+ *  - 解析结果按SQL缓存在有界的ConcurrentHashMap中，每条不同的SQL只解析一次，超出容量时淘汰最早加入的
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 20:55
+ * @Version 1.0
+ */
+public class NamedParameterJdbcTemplate {
+    static final int DEFAULT_CACHE_LIMIT = 256;
+
+    final JdbcTemplate jdbcTemplate;
+    final int cacheLimit;
+    final Map<String, ParsedSql> parsedSqlCache = new ConcurrentHashMap<>();
+    //加入缓存的顺序，用于淘汰
+    final ConcurrentLinkedQueue<String> cacheOrder = new ConcurrentLinkedQueue<>();
+
+    public NamedParameterJdbcTemplate(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, DEFAULT_CACHE_LIMIT);
+    }
+
+    /**
+     * @param jdbcTemplate
+     * @param cacheLimit 缓存的解析结果数量，0表示不缓存
+     */
+    public NamedParameterJdbcTemplate(JdbcTemplate jdbcTemplate, int cacheLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cacheLimit = Math.max(0, cacheLimit);
+    }
+
+    public Number queryForNumber(String sql, @Nullable Object params) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        return this.jdbcTemplate.queryForNumber(e.sql(), e.args());
+    }
+
+    public <T> T queryForObject(String sql, @Nullable Object params, Class<T> clazz) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        return this.jdbcTemplate.queryForObject(e.sql(), clazz, e.args());
+    }
+
+    public <T> T queryForObject(String sql, @Nullable Object params, RowMapper<T> rowMapper) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        return this.jdbcTemplate.queryForObject(e.sql(), rowMapper, e.args());
+    }
+
+    public <T> List<T> queryForList(String sql, @Nullable Object params, Class<T> clazz) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        return this.jdbcTemplate.queryForList(e.sql(), clazz, e.args());
+    }
+
+    public <T> List<T> queryForList(String sql, @Nullable Object params, RowMapper<T> rowMapper) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        return this.jdbcTemplate.queryForList(e.sql(), rowMapper, e.args());
+    }
+
+    public <T> T query(String sql, @Nullable Object params, ResultSetExtractor<T> rse) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        return this.jdbcTemplate.query(e.sql(), rse, e.args());
+    }
+
+    public void queryForEachRow(String sql, @Nullable Object params, RowCallbackHandler rch) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        this.jdbcTemplate.queryForEachRow(e.sql(), rch, e.args());
+    }
+
+    public <T> Stream<T> queryForStream(String sql, @Nullable Object params, RowMapper<T> rowMapper) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        return this.jdbcTemplate.queryForStream(e.sql(), rowMapper, e.args());
+    }
+
+    public int update(String sql, @Nullable Object params) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        return this.jdbcTemplate.update(e.sql(), e.args());
+    }
+
+    public Number updateAndReturnGeneratedKey(String sql, @Nullable Object params) throws DataAccessException {
+        ParsedSql.Expanded e = expand(sql, params);
+        return this.jdbcTemplate.updateAndReturnGeneratedKey(e.sql(), e.args());
+    }
+
+    /**
+     * 批量Update，所有元素展开后必须得到相同的SQL（集合参数的元素个数相同）
+     * @param sql
+     * @param batchParams 每个元素是一条语句的参数
+     * @return 每个批次的影响行数
+     * @throws DataAccessException
+     */
+    public int[][] batchUpdate(String sql, List<?> batchParams) throws DataAccessException {
+        if (batchParams.isEmpty()) {
+            return new int[0][];
+        }
+        ParsedSql parsedSql = getParsedSql(sql);
+        String jdbcSql = parsedSql.expand(SqlParameterSource.of(batchParams.get(0))).sql();
+        return this.jdbcTemplate.batchUpdate(jdbcSql, batchParams, (ps, params) -> {
+            ParsedSql.Expanded e = parsedSql.expand(SqlParameterSource.of(params));
+            if (!e.sql().equals(jdbcSql)) {
+                throw new IllegalArgumentException(String.format(
+                        "Batch parameters expand to different SQL: %s", sql));
+            }
+            Object[] args = e.args();
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+        });
+    }
+
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    /**
+     * 获取SQL的解析结果（缓存）
+     * @param sql
+     * @return
+     */
+    public ParsedSql getParsedSql(String sql) {
+        if (this.cacheLimit == 0) {
+            return ParsedSql.parse(sql);
+        }
+        ParsedSql parsedSql = this.parsedSqlCache.get(sql);
+        if (parsedSql != null) {
+            return parsedSql;
+        }
+        parsedSql = ParsedSql.parse(sql);
+        ParsedSql existing = this.parsedSqlCache.putIfAbsent(sql, parsedSql);
+        if (existing != null) {
+            return existing;
+        }
+        this.cacheOrder.offer(sql);
+        //超出容量时淘汰最早加入的，多个线程同时淘汰时可能短暂低于容量
+        while (this.parsedSqlCache.size() > this.cacheLimit) {
+            String eldest = this.cacheOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            this.parsedSqlCache.remove(eldest);
+        }
+        return parsedSql;
+    }
+
+    public int getCacheLimit() {
+        return cacheLimit;
+    }
+
+    public int getCacheSize() {
+        return this.parsedSqlCache.size();
+    }
+
+    ParsedSql.Expanded expand(String sql, @Nullable Object params) {
+        return getParsedSql(sql).expand(SqlParameterSource.of(params));
+    }
+}
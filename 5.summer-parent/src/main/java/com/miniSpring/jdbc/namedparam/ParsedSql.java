@@ -0,0 +1,174 @@
+package com.miniSpring.jdbc.namedparam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ClassName: ParsedSql
+ * Description:
+ * 解析后的命名参数SQL：按 :name 切分为若干片段，解析结果不可变，可以被多个线程共享
+ *  - 跳过单引号、双引号中的内容以及行注释（--）和块注释
+ *  - :: （如PostgreSQL的类型转换）不视为参数
+ *  - 不允许与 ? 位置参数混用
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 20:46
+ * @Version 1.0
+ */
+public final class ParsedSql {
+    final String sql;
+    //fragments.length == parameterNames.length + 1，参数位于相邻片段之间
+    final String[] fragments;
+    final String[] parameterNames;
+    //每个参数替换为一个?之后的SQL，参数中没有集合时直接使用
+    final String jdbcSql;
+
+    ParsedSql(String sql, String[] fragments, String[] parameterNames) {
+        this.sql = sql;
+        this.fragments = fragments;
+        this.parameterNames = parameterNames;
+        StringBuilder sb = new StringBuilder(sql.length());
+        for (int i = 0; i < parameterNames.length; i++) {
+            sb.append(fragments[i]).append('?');
+        }
+        this.jdbcSql = sb.append(fragments[parameterNames.length]).toString();
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public String getJdbcSql() {
+        return jdbcSql;
+    }
+
+    public List<String> getParameterNames() {
+        return List.of(parameterNames);
+    }
+
+    /**
+     * 解析SQL中的 :name 参数
+     * @param sql
+     * @return
+     */
+    public static ParsedSql parse(String sql) {
+        List<String> fragments = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        boolean positional = false;
+        int start = 0;
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"') {
+                //跳到对应的结束引号，'' 转义时相当于两个相邻的字符串
+                int end = sql.indexOf(c, i + 1);
+                i = end < 0 ? n : end + 1;
+            } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i + 2);
+                i = end < 0 ? n : end + 1;
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else if (c == ':' && i + 1 < n && sql.charAt(i + 1) == ':') {
+                i += 2;
+            } else if (c == ':' && i + 1 < n && Character.isJavaIdentifierStart(sql.charAt(i + 1))) {
+                int end = i + 2;
+                while (end < n && Character.isJavaIdentifierPart(sql.charAt(end))) {
+                    end++;
+                }
+                fragments.add(sql.substring(start, i));
+                names.add(sql.substring(i + 1, end));
+                start = end;
+                i = end;
+            } else {
+                if (c == '?') {
+                    positional = true;
+                }
+                i++;
+            }
+        }
+        if (positional && !names.isEmpty()) {
+            throw new IllegalArgumentException(String.format(
+                    "Named and positional parameters cannot be mixed: %s", sql));
+        }
+        fragments.add(sql.substring(start));
+        return new ParsedSql(sql, fragments.toArray(new String[0]), names.toArray(new String[0]));
+    }
+
+    /**
+     * 按参数来源生成JDBC SQL和位置参数；集合或Object[]参数展开为 ?, ?, ... 用于 IN (...)
+     * @param source
+     * @return
+     */
+    public Expanded expand(SqlParameterSource source) {
+        Object[] values = new Object[this.parameterNames.length];
+        int count = 0;
+        boolean hasCollection = false;
+        for (int i = 0; i < values.length; i++) {
+            String name = this.parameterNames[i];
+            if (!source.hasValue(name)) {
+                throw new IllegalArgumentException(String.format("No value supplied for parameter :%s in SQL: %s",
+                        name, this.sql));
+            }
+            Object value = source.getValue(name);
+            int size = expandedSize(value);
+            if (size < 0) {
+                count++;
+            } else if (size == 0) {
+                throw new IllegalArgumentException(String.format("Empty collection for parameter :%s in SQL: %s",
+                        name, this.sql));
+            } else {
+                count += size;
+                hasCollection = true;
+            }
+            values[i] = value;
+        }
+        if (!hasCollection) {
+            return new Expanded(this.jdbcSql, values);
+        }
+        Object[] args = new Object[count];
+        StringBuilder sb = new StringBuilder(this.jdbcSql.length() + count * 3);
+        int k = 0;
+        for (int i = 0; i < values.length; i++) {
+            sb.append(this.fragments[i]);
+            Object value = values[i];
+            if (expandedSize(value) < 0) {
+                sb.append('?');
+                args[k++] = value;
+                continue;
+            }
+            Iterable<?> items = value instanceof Collection<?> c ? c : Arrays.asList((Object[]) value);
+            boolean first = true;
+            for (Object item : items) {
+                sb.append(first ? "?" : ", ?");
+                first = false;
+                args[k++] = item;
+            }
+        }
+        sb.append(this.fragments[values.length]);
+        return new Expanded(sb.toString(), args);
+    }
+
+    /**
+     * 需要展开的参数返回元素个数，否则返回-1
+     */
+    static int expandedSize(Object value) {
+        if (value instanceof Collection<?> c) {
+            return c.size();
+        }
+        if (value instanceof Object[] array) {
+            return array.length;
+        }
+        return -1;
+    }
+
+    /**
+     * 展开后的JDBC SQL及按顺序排列的参数
+     * @param sql
+     * @param args
+     */
+    public record Expanded(String sql, Object[] args) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.miniSpring.jdbc.namedparam;
+
+import jakarta.annotation.Nullable;
+
+import java.util.Map;
+
+/**
+ * ClassName: SqlParameterSource
+ * Description:
+ * 命名参数的取值来源
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 20:40
+ * @Version 1.0
+ */
+public interface SqlParameterSource {
+
+    /**
+     * 是否存在名为name的参数（值可以为null）
+     * @param name
+     * @return
+     */
+    boolean hasValue(String name);
+
+    @Nullable
+    Object getValue(String name);
+
+    /**
+     * 将Map、SqlParameterSource或JavaBean/record包装为SqlParameterSource
+     * @param params 为null时视为没有参数
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    static SqlParameterSource of(@Nullable Object params) {
+        if (params == null) {
+            return MapSqlParameterSource.EMPTY;
+        }
+        if (params instanceof SqlParameterSource source) {
+            return source;
+        }
+        if (params instanceof Map<?, ?> map) {
+            return new MapSqlParameterSource((Map<String, ?>) map);
+        }
+        return new BeanPropertySqlParameterSource(params);
+    }
+}
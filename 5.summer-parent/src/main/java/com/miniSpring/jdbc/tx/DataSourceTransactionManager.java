@@ -1,6 +1,9 @@
 package com.miniSpring.jdbc.tx;
 
 import com.miniSpring.exception.TransactionException;
+import com.miniSpring.jdbc.JdbcMetrics;
+import com.miniSpring.jdbc.ReadWriteRoutingDataSource;
+import com.miniSpring.jdbc.entity.IdentityMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,11 +13,17 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
 
 /**
  * ClassName: DataSourceTransactionManager
  * Description:
  * 是真正执行开启、提交、回归事务的地方；因为事务处理逻辑应该由框架确定而不是客户端，因此InvocationHandler需要框架写，@Around等注解的则由客户端自定义
+ *  - 支持REQUIRED、REQUIRES_NEW、NESTED（Savepoint）、SUPPORTS、NOT_SUPPORTED传播行为，挂起的事务在方法返回后恢复
+ *  - 新事务在第一次使用连接时才从连接池获取连接，并按TransactionDefinition设置隔离级别和setReadOnly(true)，
+ *    结束后恢复连接原来的状态；没有访问数据库的事务不获取连接，也不提交或回滚
+ *  - 加入当前事务的方法抛出异常时，将事务标记为只能回滚，外层提交时改为回滚并抛出TransactionException
  * @Author Jeffer Chen
  * @Create 2024/4/29 21:23
  * @Version 1.0
@@ -24,55 +33,298 @@ public class DataSourceTransactionManager implements PlatformTransactionManager,
     static final ThreadLocal<TransactionStatus> transactionStatus = new ThreadLocal<>();
     final Logger logger = LoggerFactory.getLogger(getClass());
     final DataSource dataSource;
+    //为null时不统计
+    JdbcMetrics metrics;
 
     public DataSourceTransactionManager(DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
+    /**
+     * 设置统计（获取连接的等待时间、事务持续时间），为null或未开启时不统计
+     * @param metrics
+     */
+    public void setMetrics(JdbcMetrics metrics) {
+        this.metrics = metrics != null && metrics.isEnabled() ? metrics : null;
+    }
+
+    /**
+     * 按默认属性（REQUIRED）在事务中调用方法
+     */
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        TransactionStatus ts = transactionStatus.get();
-        if(ts == null) {
-            //开启新事务
-            try (Connection connection = dataSource.getConnection()) {
-                final boolean autoCommit = connection.getAutoCommit();
-                if(autoCommit) {
-                    connection.setAutoCommit(false);
+        return execute(TransactionDefinition.DEFAULT, () -> method.invoke(proxy, args));
+    }
+
+    @Override
+    public <T> T execute(TransactionDefinition definition, TransactionCallback<T> action) {
+        TransactionStatus current = transactionStatus.get();
+        switch (definition.propagation()) {
+            case REQUIRES_NEW:
+                return executeInNewTransaction(definition, action, current);
+            case NESTED:
+                return current != null ? executeNested(current, action) : executeInNewTransaction(definition, action, null);
+            case SUPPORTS:
+                return current != null ? participate(current, action) : executeWithoutTransaction(action, null);
+            case NOT_SUPPORTED:
+                return executeWithoutTransaction(action, current);
+            default:
+                return current != null ? participate(current, action) : executeInNewTransaction(definition, action, null);
+        }
+    }
+
+    /**
+     * 开启新事务；suspended不为null时先挂起该事务，结束后恢复。物理连接在第一次使用时才获取，
+     * 没有获取连接的事务直接返回，不需要提交或回滚
+     */
+    <T> T executeInNewTransaction(TransactionDefinition definition, TransactionCallback<T> action,
+                                  TransactionStatus suspended) {
+        if (suspended != null) {
+            transactionStatus.remove();
+        }
+        final TransactionStatus status = new TransactionStatus(this, definition);
+        final JdbcMetrics metrics = this.metrics;
+        final long start = metrics == null ? 0 : System.nanoTime();
+        boolean committed = false;
+        //回滚时抛出的异常，清理连接失败时作为suppressed加入，不覆盖原来的异常
+        TransactionException failure = null;
+        try {
+            //设置ThreadLocal状态
+            transactionStatus.set(status);
+            //调用业务方法
+            T r = action.doInTransaction();
+            //提交事务前执行延迟写积压的批次，再关闭缓存的PreparedStatement
+            status.flushWriteBehind();
+            status.closeStatementCache();
+            if (status.rollbackOnly) {
+                //由下面的catch回滚
+                throw new TransactionException("Transaction rolled back because it has been marked as rollback-only.");
+            }
+            if (status.hasConnection()) {
+                //提交事务
+                status.connection.commit();
+                committed = true;
+                if (!definition.readOnly() && this.dataSource instanceof ReadWriteRoutingDataSource routing) {
+                    //提交后重新开始写后粘滞窗口
+                    routing.markWritten();
                 }
+            }
+            //提交成功后执行回调（如查询缓存失效）
+            status.triggerAfterCommit();
+            //方法返回
+            return r;
+        } catch (Exception e) {
+            //回滚事务
+            TransactionException te = translate(e);
+            failure = te;
+            logger.warn("will rollback transaction for caused exception: {}",
+                    te.getCause() == null ? te.getClass().getName() : te.getCause().getClass().getName());
+            //尝试回滚与connection关联的事务。但是，如果在回滚过程中发生SQLException，则捕获该异常并将其作为被抑制的异常
+            // 添加到TransactionException中
+            status.discardWriteBehind();
+            try {
+                status.closeStatementCache();
+            } catch (SQLException sqle) {
+                te.addSuppressed(sqle);
+            }
+            if (status.hasConnection()) {
                 try {
-                    //设置ThreadLocal状态
-                    transactionStatus.set(new TransactionStatus(connection));
-                    //调用业务方法
-                    Object r = method.invoke(proxy, args);
-                    //提交事务
-                    connection.commit();
-                    //方法返回
-                    return r;
-                } catch (InvocationTargetException e) {
-                    //回滚事务
-                    logger.warn("will rollback transaction for caused exception: {}",
-                            e.getCause() == null ? "null" : e.getCause().getClass().getName());
-                    TransactionException te = new TransactionException(e.getCause());
-                    //尝试回滚与connection关联的事务。但是，如果在回滚过程中发生SQLException，则捕获该异常并将其作为被抑制的异常
-                    // 添加到TransactionException中
-                    try {
-                        connection.rollback();
-                    } catch (SQLException sqle) {
-                        te.addSuppressed(sqle);
-                    }
-                    throw te;
-                }finally {
-                    //移除ThreadLocal状态
-                    transactionStatus.remove();
-                    //TODO 为何这里autoCommit又会变为true？
-                    if(autoCommit) {
-                        connection.setAutoCommit(true);
-                    }
+                    status.connection.rollback();
+                } catch (SQLException sqle) {
+                    te.addSuppressed(sqle);
                 }
             }
+            throw te;
+        } finally {
+            //移除ThreadLocal状态
+            transactionStatus.remove();
+            if (metrics != null && status.hasConnection()) {
+                metrics.recordTransaction(System.nanoTime() - start, committed);
+            }
+            try {
+                doCleanup(status);
+            } catch (SQLException e) {
+                if (failure == null) {
+                    throw new TransactionException(e);
+                }
+                failure.addSuppressed(e);
+            } finally {
+                if (suspended != null) {
+                    transactionStatus.set(suspended);
+                }
+            }
+        }
+    }
+
+    /**
+     * 为事务获取物理连接：关闭autoCommit，按TransactionDefinition设置隔离级别和只读，并记录连接原来的状态
+     * @param status
+     * @return
+     * @throws SQLException
+     */
+    Connection doBegin(TransactionStatus status) throws SQLException {
+        TransactionDefinition definition = status.definition;
+        //只读事务在配置了读写分离时使用只读库的连接
+        Connection connection = getConnection(definition.readOnly());
+        try {
+            status.previousAutoCommit = connection.getAutoCommit();
+            if (status.previousAutoCommit) {
+                connection.setAutoCommit(false);
+            }
+            status.previousIsolation = applyIsolation(connection, definition.isolation());
+            if (definition.readOnly()) {
+                connection.setReadOnly(true);
+            }
+        } catch (SQLException e) {
+            try {
+                connection.close();
+            } catch (SQLException sqle) {
+                e.addSuppressed(sqle);
+            }
+            throw e;
+        }
+        return connection;
+    }
+
+    /**
+     * 关闭缓存的PreparedStatement，恢复连接原来的状态后归还连接池
+     * @param status
+     * @throws SQLException
+     */
+    void doCleanup(TransactionStatus status) throws SQLException {
+        Connection connection = status.connection;
+        if (connection == null) {
+            return;
+        }
+        status.connection = null;
+        try (connection) {
+            status.closeStatementCache();
+            if (status.definition.readOnly()) {
+                connection.setReadOnly(false);
+            }
+            if (status.previousIsolation >= 0) {
+                connection.setTransactionIsolation(status.previousIsolation);
+            }
+            if (status.previousAutoCommit) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * 在当前事务的连接上创建Savepoint，失败时只回滚到Savepoint，外层事务可以继续
+     */
+    <T> T executeNested(TransactionStatus current, TransactionCallback<T> action) {
+        //回滚到Savepoint后恢复，嵌套事务中加入的方法失败时设置的只能回滚标记不影响外层事务
+        final boolean previousRollbackOnly = current.rollbackOnly;
+        final Savepoint savepoint;
+        try {
+            savepoint = current.getConnection().setSavepoint();
+        } catch (SQLException e) {
+            throw new TransactionException("Cannot create savepoint for nested transaction.", e);
+        }
+        T r;
+        try {
+            r = action.doInTransaction();
+            //嵌套事务中积压的语句在释放Savepoint前执行，失败时回滚到Savepoint
+            current.flushWriteBehind();
+        } catch (Exception e) {
+            TransactionException te = translate(e);
+            logger.warn("will rollback to savepoint for caused exception: {}",
+                    te.getCause() == null ? te.getClass().getName() : te.getCause().getClass().getName());
+            //创建Savepoint时已执行之前积压的批次，此时积压的都是嵌套事务中的语句
+            current.discardWriteBehind();
+            //IdentityMap中可能缓存了嵌套事务中修改过的实体，回滚后不能再返回
+            IdentityMap.invalidateCurrent(null);
+            try {
+                current.connection.rollback(savepoint);
+                current.rollbackOnly = previousRollbackOnly;
+            } catch (SQLException sqle) {
+                //未能回滚到Savepoint，外层事务只能整体回滚
+                current.rollbackOnly = true;
+                te.addSuppressed(sqle);
+            }
+            throw te;
+        }
+        try {
+            current.connection.releaseSavepoint(savepoint);
+        } catch (SQLFeatureNotSupportedException e) {
+            //部分驱动不支持释放Savepoint，事务结束时会自动释放
+        } catch (SQLException e) {
+            throw new TransactionException(e);
+        }
+        return r;
+    }
+
+    /**
+     * 加入当前事务，失败时将当前事务标记为只能回滚
+     */
+    <T> T participate(TransactionStatus current, TransactionCallback<T> action) {
+        try {
+            return action.doInTransaction();
+        } catch (Exception e) {
+            current.rollbackOnly = true;
+            throw translate(e);
+        }
+    }
+
+    /**
+     * 以非事务方式执行；suspended不为null时先挂起该事务，结束后恢复
+     */
+    <T> T executeWithoutTransaction(TransactionCallback<T> action, TransactionStatus suspended) {
+        if (suspended != null) {
+            transactionStatus.remove();
+        }
+        try {
+            return action.doInTransaction();
+        } catch (Exception e) {
+            throw translate(e);
+        } finally {
+            if (suspended != null) {
+                transactionStatus.set(suspended);
+            }
+        }
+    }
+
+    Connection getConnection(boolean readOnly) throws SQLException {
+        final JdbcMetrics metrics = this.metrics;
+        final long start = metrics == null ? 0 : System.nanoTime();
+        Connection connection;
+        if (readOnly && this.dataSource instanceof ReadWriteRoutingDataSource routing) {
+            connection = routing.getReadConnection();
         } else {
-            //加入当前事务
-            return method.invoke(proxy, args);
+            connection = this.dataSource.getConnection();
+        }
+        if (metrics != null) {
+            metrics.recordConnectionAcquire(System.nanoTime() - start);
+        }
+        return connection;
+    }
+
+    /**
+     * 设置隔离级别
+     * @return 原来的隔离级别，未修改时返回-1
+     */
+    static int applyIsolation(Connection connection, Isolation isolation) throws SQLException {
+        if (isolation == Isolation.DEFAULT) {
+            return -1;
+        }
+        int previous = connection.getTransactionIsolation();
+        if (previous == isolation.getLevel()) {
+            return -1;
+        }
+        connection.setTransactionIsolation(isolation.getLevel());
+        return previous;
+    }
+
+    /**
+     * 业务方法的异常包装为TransactionException，内层事务抛出的TransactionException不再重复包装
+     */
+    static TransactionException translate(Exception e) {
+        Throwable cause = e instanceof InvocationTargetException ite && ite.getCause() != null ? ite.getCause() : e;
+        if (cause instanceof TransactionException te) {
+            return te;
         }
+        return new TransactionException(cause);
     }
 }
@@ -0,0 +1,73 @@
+package com.miniSpring.jdbc.tx;
+
+import com.miniSpring.exception.TransactionException;
+
+import java.sql.Statement;
+
+/**
+ * ClassName: DeferredRowCount
+ * Description:
+ * 延迟写（@Transactional(writeBehind = true)）时一条update的影响行数：语句所在的批次执行后才可用；
+ * 在事务中调用get()时若还未执行，则先执行当前积压的批次
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 12:10
+ * @Version 1.0
+ */
+public class DeferredRowCount {
+    //未执行时为null
+    final WriteBehindQueue queue;
+    int rowCount;
+    boolean done;
+    //批次未执行就被丢弃（事务回滚或批量执行失败）
+    boolean discarded;
+
+    DeferredRowCount(WriteBehindQueue queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * 已执行的语句
+     * @param rowCount
+     * @return
+     */
+    public static DeferredRowCount of(int rowCount) {
+        DeferredRowCount d = new DeferredRowCount(null);
+        d.complete(rowCount);
+        return d;
+    }
+
+    /**
+     * 获取影响行数，语句还未执行时先执行积压的批次
+     * @return 影响行数，驱动不返回时为Statement.SUCCESS_NO_INFO
+     * @throws TransactionException 语句已被丢弃，或执行失败
+     */
+    public int get() {
+        if (!this.done && !this.discarded && this.queue != null) {
+            this.queue.flush();
+        }
+        if (this.discarded) {
+            throw new TransactionException("Deferred update was discarded because its batch was not executed.");
+        }
+        return this.rowCount;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    void complete(int rowCount) {
+        this.rowCount = rowCount;
+        this.done = true;
+    }
+
+    void discard() {
+        this.discarded = true;
+    }
+
+    /**
+     * executeBatch返回的数量少于语句数时，剩余的按SUCCESS_NO_INFO处理
+     */
+    static int rowCountAt(int[] counts, int index) {
+        return index < counts.length ? counts[index] : Statement.SUCCESS_NO_INFO;
+    }
+}
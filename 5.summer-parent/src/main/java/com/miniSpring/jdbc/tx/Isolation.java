@@ -0,0 +1,30 @@
+package com.miniSpring.jdbc.tx;
+
+import java.sql.Connection;
+
+/**
+ * ClassName: Isolation
+ * Description:
+ * 事务隔离级别，DEFAULT表示使用连接（数据库）的默认值
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 21:51
+ * @Version 1.0
+ */
+public enum Isolation {
+    DEFAULT(-1),
+    READ_UNCOMMITTED(Connection.TRANSACTION_READ_UNCOMMITTED),
+    READ_COMMITTED(Connection.TRANSACTION_READ_COMMITTED),
+    REPEATABLE_READ(Connection.TRANSACTION_REPEATABLE_READ),
+    SERIALIZABLE(Connection.TRANSACTION_SERIALIZABLE);
+
+    //对应java.sql.Connection中的常量
+    final int level;
+
+    Isolation(int level) {
+        this.level = level;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+}
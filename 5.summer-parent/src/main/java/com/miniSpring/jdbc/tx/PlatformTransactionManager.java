@@ -3,10 +3,19 @@ package com.miniSpring.jdbc.tx;
 /**
  * ClassName: PlatformTransactionManager
  * Description:
- * 单纯起到一个标识作用
+ * 事务管理器，按TransactionDefinition执行TransactionCallback
  * @Author Jeffer Chen
  * @Create 2024/4/29 21:17
  * @Version 1.0
  */
 public interface PlatformTransactionManager {
+
+    /**
+     * 按事务属性执行action，action抛出的异常包装为TransactionException
+     * @param definition
+     * @param action
+     * @return
+     * @param <T>
+     */
+    <T> T execute(TransactionDefinition definition, TransactionCallback<T> action);
 }
@@ -0,0 +1,22 @@
+package com.miniSpring.jdbc.tx;
+
+/**
+ * ClassName: Propagation
+ * Description:
+ * 事务传播行为
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 21:50
+ * @Version 1.0
+ */
+public enum Propagation {
+    //有事务则加入，没有则开启新事务
+    REQUIRED,
+    //总是开启新事务（使用新连接），挂起当前事务
+    REQUIRES_NEW,
+    //有事务则在当前连接上创建Savepoint，失败时只回滚到Savepoint；没有事务则同REQUIRED
+    NESTED,
+    //有事务则加入，没有则以非事务方式执行
+    SUPPORTS,
+    //以非事务方式执行，挂起当前事务
+    NOT_SUPPORTED
+}
@@ -0,0 +1,15 @@
+package com.miniSpring.jdbc.tx;
+
+/**
+ * ClassName: TransactionCallback
+ * Description:
+ * 在事务中执行的操作
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 21:55
+ * @Version 1.0
+ */
+@FunctionalInterface
+public interface TransactionCallback<T> {
+
+    T doInTransaction() throws Exception;
+}
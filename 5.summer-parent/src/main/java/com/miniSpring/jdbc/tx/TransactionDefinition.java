@@ -0,0 +1,26 @@
+package com.miniSpring.jdbc.tx;
+
+import com.miniSpring.annotation.Transactional;
+
+/**
+ * ClassName: TransactionDefinition
+ * Description:
+ * 事务属性：传播行为、隔离级别、是否只读，以及是否将JdbcTemplate.update延迟为批量执行（见WriteBehindQueue）
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 21:53
+ * @Version 1.0
+ */
+public record TransactionDefinition(Propagation propagation, Isolation isolation, boolean readOnly,
+                                    boolean writeBehind) {
+
+    public static final TransactionDefinition DEFAULT =
+            new TransactionDefinition(Propagation.REQUIRED, Isolation.DEFAULT, false);
+
+    public TransactionDefinition(Propagation propagation, Isolation isolation, boolean readOnly) {
+        this(propagation, isolation, readOnly, false);
+    }
+
+    public static TransactionDefinition of(Transactional tx) {
+        return new TransactionDefinition(tx.propagation(), tx.isolation(), tx.readOnly(), tx.writeBehind());
+    }
+}
@@ -1,19 +1,133 @@
 package com.miniSpring.jdbc.tx;
 
+import com.miniSpring.jdbc.StatementCache;
+
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * ClassName: TransactionStatus
  * Description:
- * 表示当前事务状态，目前仅封装了一个Connection，将来如果扩展，则可以将事务的传播模式存储在里面
+ * 表示当前事务状态：事务连接、事务属性，以及是否已被加入该事务的方法标记为只能回滚；
+ * 物理连接在第一次被使用（getConnection()）时才从连接池获取并关闭autoCommit，未访问数据库的事务不占用连接
  * @Author Jeffer Chen
  * @Create 2024/4/29 21:22
  * @Version 1.0
  */
 public class TransactionStatus {
-    final Connection connection;
+    final DataSourceTransactionManager transactionManager;
+    final TransactionDefinition definition;
+    //物理连接，首次使用时获取
+    Connection connection;
+    //获取连接时记录的连接原始状态，事务结束时恢复
+    boolean previousAutoCommit;
+    int previousIsolation = -1;
+    //加入该事务的方法抛出异常后置为true，外层提交时改为回滚
+    boolean rollbackOnly = false;
+    //事务连接上的PreparedStatement缓存，首次使用时创建，事务结束时关闭
+    StatementCache statementCache;
+    //绑定到事务上的资源（如查询缓存待失效的表），按key区分使用方，首次使用时创建
+    Map<Object, Object> resources;
+    //事务成功提交后执行的回调
+    List<Runnable> afterCommitCallbacks;
+    //延迟写积压的update，TransactionDefinition.writeBehind为true时首次使用时创建
+    WriteBehindQueue writeBehindQueue;
+
+    TransactionStatus(DataSourceTransactionManager transactionManager, TransactionDefinition definition) {
+        this.transactionManager = transactionManager;
+        this.definition = definition;
+    }
+
+    /**
+     * 获取事务连接，第一次调用时从连接池获取并开启事务
+     * @return
+     * @throws SQLException
+     */
+    public Connection getConnection() throws SQLException {
+        //其他语句使用连接前，先执行延迟写积压的批次
+        if (this.writeBehindQueue != null) {
+            this.writeBehindQueue.flush();
+        }
+        return openConnection();
+    }
+
+    /**
+     * 获取事务连接，不执行积压的批次
+     */
+    Connection openConnection() throws SQLException {
+        if (this.connection == null) {
+            this.connection = this.transactionManager.doBegin(this);
+        }
+        return this.connection;
+    }
+
+    /**
+     * 是否已经获取了物理连接
+     * @return
+     */
+    public boolean hasConnection() {
+        return this.connection != null;
+    }
+
+    public TransactionDefinition getDefinition() {
+        return definition;
+    }
+
+    public boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    public void setRollbackOnly() {
+        this.rollbackOnly = true;
+    }
+
+    /**
+     * 依次执行提交后的回调，回调抛出的异常只记录日志，不影响已提交的事务
+     */
+    void triggerAfterCommit() {
+        if (this.afterCommitCallbacks == null) {
+            return;
+        }
+        List<Runnable> callbacks = this.afterCommitCallbacks;
+        this.afterCommitCallbacks = null;
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                this.transactionManager.logger.warn("afterCommit callback failed.", e);
+            }
+        }
+    }
+
+    /**
+     * 执行延迟写积压的批次
+     */
+    void flushWriteBehind() {
+        if (this.writeBehindQueue != null) {
+            this.writeBehindQueue.flush();
+        }
+    }
+
+    /**
+     * 丢弃延迟写积压的语句
+     */
+    void discardWriteBehind() {
+        if (this.writeBehindQueue != null) {
+            this.writeBehindQueue.discard();
+        }
+    }
 
-    public TransactionStatus(Connection connection) {
-        this.connection = connection;
+    /**
+     * 关闭PreparedStatement缓存，应在连接归还连接池之前调用
+     * @throws SQLException
+     */
+    void closeStatementCache() throws SQLException {
+        if (this.statementCache != null) {
+            StatementCache cache = this.statementCache;
+            this.statementCache = null;
+            cache.close();
+        }
     }
 }
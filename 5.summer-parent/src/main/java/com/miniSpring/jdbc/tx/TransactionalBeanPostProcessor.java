@@ -1,16 +1,98 @@
 package com.miniSpring.jdbc.tx;
 
 import com.miniSpring.annotation.Transactional;
-import com.miniSpring.aop.AnnotationProxyBeanPostProcessor;
+import com.miniSpring.aop.MethodAnnotationProxyBeanPostProcessor;
+import com.miniSpring.context.ApplicationContextUtils;
+import com.miniSpring.context.BeanDefinition;
+import com.miniSpring.context.ConfigurableApplicationContext;
+import com.miniSpring.exception.AopConfigException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * ClassName: TransactionalBeanPostProcessor
  * Description:
- *
+ * 为类或方法上带有@Transactional的Bean创建Proxy：创建代理时为每个public方法解析出事务管理器和TransactionDefinition，
+ * 调用时直接按方法查表，不再每次读取注解
  * @Author Jeffer Chen
  * @Create 2024/4/30 15:20
  * @Version 1.0
  */
-public class TransactionalBeanPostProcessor extends AnnotationProxyBeanPostProcessor<Transactional> {
+public class TransactionalBeanPostProcessor extends MethodAnnotationProxyBeanPostProcessor {
+
+    @Override
+    protected InvocationHandler createInvocationHandler(Object bean, Class<?> targetClass, String beanName) {
+        Transactional classTx = targetClass.getAnnotation(Transactional.class);
+        Map<String, PlatformTransactionManager> managers = new HashMap<>();
+        Map<Method, TransactionAttribute> attributes = new HashMap<>();
+        for (Method m : targetClass.getMethods()) {
+            if (m.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            //方法上的注解优先于类上的注解
+            Transactional tx = m.getAnnotation(Transactional.class);
+            if (tx == null) {
+                tx = classTx;
+            }
+            if (tx == null) {
+                continue;
+            }
+            PlatformTransactionManager manager = managers.computeIfAbsent(tx.value(), this::getTransactionManager);
+            attributes.put(m, new TransactionAttribute(manager, TransactionDefinition.of(tx)));
+        }
+        if (attributes.isEmpty()) {
+            return null;
+        }
+        return new TransactionInterceptor(targetClass, attributes);
+    }
+
+    /**
+     * 按name从容器中获取事务管理器，尚未创建则立即创建
+     * @param name
+     * @return
+     */
+    PlatformTransactionManager getTransactionManager(String name) {
+        var ctx = (ConfigurableApplicationContext) ApplicationContextUtils.getRequiredApplicationContext();
+        BeanDefinition def = ctx.findBeanDefinition(name);
+        if (def == null) {
+            throw new AopConfigException(String.format("Transaction manager '%s' not found.", name));
+        }
+        Object manager = def.getInstance();
+        if (manager == null) {
+            manager = ctx.createBeanAsEarlySingleton(def);
+        }
+        if (manager instanceof PlatformTransactionManager ptm) {
+            return ptm;
+        }
+        throw new AopConfigException(String.format("@Transactional manager '%s' is not type of %s.", name,
+                PlatformTransactionManager.class.getName()));
+    }
+
+    record TransactionAttribute(PlatformTransactionManager manager, TransactionDefinition definition) {
+        static final TransactionAttribute NONE = new TransactionAttribute(null, null);
+    }
+
+    static class TransactionInterceptor implements InvocationHandler {
+        final Class<?> targetClass;
+        //Method -> TransactionAttribute，收到代理类的Method时会解析到原始类的Method后缓存
+        final Map<Method, TransactionAttribute> attributes;
+
+        TransactionInterceptor(Class<?> targetClass, Map<Method, TransactionAttribute> attributes) {
+            this.targetClass = targetClass;
+            this.attributes = new ConcurrentHashMap<>(attributes);
+        }
 
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            TransactionAttribute attr = lookupByMethod(this.attributes, this.targetClass, method, TransactionAttribute.NONE);
+            if (attr == TransactionAttribute.NONE) {
+                return invokeTarget(proxy, method, args);
+            }
+            return attr.manager.execute(attr.definition, () -> method.invoke(proxy, args));
+        }
+    }
 }
@@ -1,8 +1,14 @@
 package com.miniSpring.jdbc.tx;
 
+import com.miniSpring.exception.TransactionException;
+import com.miniSpring.jdbc.StatementCache;
 import jakarta.annotation.Nullable;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
 
 /**
  * ClassName: TransactionalUtils
@@ -13,9 +19,123 @@ import java.sql.Connection;
  * @Version 1.0
  */
 public class TransactionalUtils {
+    /**
+     * 获取当前事务的连接，事务还未获取物理连接时此时获取
+     * @return 不在事务中时返回null
+     * @throws TransactionException 获取连接失败
+     */
     @Nullable
     public static Connection getCurrentConnection() {
         TransactionStatus ts = DataSourceTransactionManager.transactionStatus.get();
-        return ts == null ? null : ts.connection;
+        if (ts == null) {
+            return null;
+        }
+        try {
+            return ts.getConnection();
+        } catch (SQLException e) {
+            throw new TransactionException("Cannot open connection for transaction.", e);
+        }
+    }
+
+    /**
+     * 当前线程是否处于事务中（不会获取连接）
+     * @return
+     */
+    public static boolean isTransactionActive() {
+        return DataSourceTransactionManager.transactionStatus.get() != null;
+    }
+
+    /**
+     * 当前线程是否处于管理dataSource的事务管理器开启的事务中（不会获取连接）
+     * @param dataSource
+     * @return
+     */
+    public static boolean isTransactionActive(DataSource dataSource) {
+        TransactionStatus ts = DataSourceTransactionManager.transactionStatus.get();
+        return ts != null && ts.transactionManager.dataSource == dataSource;
+    }
+
+    /**
+     * 获取当前事务连接上的PreparedStatement缓存，不存在则创建
+     * @param maxSize 缓存容量
+     * @return 不在事务中时返回null
+     */
+    @Nullable
+    public static StatementCache getCurrentStatementCache(int maxSize) {
+        TransactionStatus ts = DataSourceTransactionManager.transactionStatus.get();
+        if (ts == null) {
+            return null;
+        }
+        if (ts.statementCache == null) {
+            ts.statementCache = new StatementCache(maxSize);
+        }
+        return ts.statementCache;
+    }
+
+    /**
+     * 获取绑定到当前事务上的资源
+     * @param key
+     * @return 不在事务中或未绑定时返回null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public static <T> T getResource(Object key) {
+        TransactionStatus ts = DataSourceTransactionManager.transactionStatus.get();
+        if (ts == null || ts.resources == null) {
+            return null;
+        }
+        return (T) ts.resources.get(key);
+    }
+
+    /**
+     * 将资源绑定到当前事务上，事务结束时随TransactionStatus一起丢弃
+     * @param key
+     * @param value
+     * @return 不在事务中时返回false
+     */
+    public static boolean bindResource(Object key, Object value) {
+        TransactionStatus ts = DataSourceTransactionManager.transactionStatus.get();
+        if (ts == null) {
+            return false;
+        }
+        if (ts.resources == null) {
+            ts.resources = new HashMap<>();
+        }
+        ts.resources.put(key, value);
+        return true;
+    }
+
+    /**
+     * 注册当前事务成功提交后执行的回调；事务回滚时不执行
+     * @param callback
+     * @return 不在事务中时返回false，由调用方立即执行
+     */
+    public static boolean registerAfterCommit(Runnable callback) {
+        TransactionStatus ts = DataSourceTransactionManager.transactionStatus.get();
+        if (ts == null) {
+            return false;
+        }
+        if (ts.afterCommitCallbacks == null) {
+            ts.afterCommitCallbacks = new ArrayList<>();
+        }
+        ts.afterCommitCallbacks.add(callback);
+        return true;
+    }
+
+    /**
+     * 获取当前延迟写事务的积压队列，不存在则创建
+     * @param threshold 积压多少条后执行
+     * @return 不在事务中，或事务未开启writeBehind时返回null
+     */
+    @Nullable
+    public static WriteBehindQueue getCurrentWriteBehindQueue(int threshold) {
+        TransactionStatus ts = DataSourceTransactionManager.transactionStatus.get();
+        if (ts == null || !ts.definition.writeBehind()) {
+            return null;
+        }
+        if (ts.writeBehindQueue == null) {
+            ts.writeBehindQueue = new WriteBehindQueue(ts, threshold);
+        }
+        return ts.writeBehindQueue;
     }
 }
@@ -0,0 +1,110 @@
+package com.miniSpring.jdbc.tx;
+
+import com.miniSpring.exception.TransactionException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ClassName: WriteBehindQueue
+ * Description:
+ * 延迟写事务中积压的update：只积压连续的同一条SQL，遇到不同的SQL时先执行已积压的批次，保证语句按调用顺序执行；
+ * 以下情况执行积压的批次：
+ *  - 获取事务连接时（JdbcTemplate执行查询或其他语句、创建Savepoint等都会先获取事务连接）
+ *  - 积压数量达到threshold
+ *  - 事务提交前
+ * 事务回滚或批量执行失败时，未执行的语句被丢弃
+ * @Author Jeffer Chen
+ * @Create 2026/10/20 12:05
+ * @Version 1.0
+ */
+public class WriteBehindQueue {
+    /**
+     * 在事务连接上批量执行同一条SQL
+     */
+    @FunctionalInterface
+    public interface BatchExecutor {
+        int[] executeBatch(Connection con, String sql, List<Object[]> batchArgs) throws SQLException;
+    }
+
+    final TransactionStatus status;
+    final int threshold;
+
+    String sql;
+    BatchExecutor executor;
+    List<Object[]> batchArgs = new ArrayList<>();
+    List<DeferredRowCount> results = new ArrayList<>();
+
+    WriteBehindQueue(TransactionStatus status, int threshold) {
+        this.status = status;
+        this.threshold = Math.max(1, threshold);
+    }
+
+    /**
+     * 积压一条update
+     * @param sql
+     * @param args
+     * @param executor 执行批次的方法
+     * @return 影响行数，批次执行后可用
+     */
+    public DeferredRowCount add(String sql, Object[] args, BatchExecutor executor) {
+        if (this.sql != null && !this.sql.equals(sql)) {
+            flush();
+        }
+        this.sql = sql;
+        this.executor = executor;
+        this.batchArgs.add(args);
+        DeferredRowCount result = new DeferredRowCount(this);
+        this.results.add(result);
+        if (this.batchArgs.size() >= this.threshold) {
+            flush();
+        }
+        return result;
+    }
+
+    public int size() {
+        return this.batchArgs.size();
+    }
+
+    /**
+     * 执行积压的批次
+     * @throws TransactionException 执行失败，此时未执行的语句被丢弃
+     */
+    public void flush() {
+        if (this.batchArgs.isEmpty()) {
+            return;
+        }
+        //先取出，执行过程中再次获取事务连接时不会重复执行
+        String sql = this.sql;
+        BatchExecutor executor = this.executor;
+        List<Object[]> batchArgs = this.batchArgs;
+        List<DeferredRowCount> results = this.results;
+        this.sql = null;
+        this.executor = null;
+        this.batchArgs = new ArrayList<>();
+        this.results = new ArrayList<>();
+        int[] counts;
+        try {
+            counts = executor.executeBatch(this.status.openConnection(), sql, batchArgs);
+        } catch (SQLException | RuntimeException e) {
+            results.forEach(DeferredRowCount::discard);
+            throw e instanceof TransactionException te ? te : new TransactionException("Deferred batch update failed.", e);
+        }
+        for (int i = 0; i < results.size(); i++) {
+            results.get(i).complete(DeferredRowCount.rowCountAt(counts, i));
+        }
+    }
+
+    /**
+     * 丢弃积压的语句（事务或Savepoint回滚时）
+     */
+    void discard() {
+        this.results.forEach(DeferredRowCount::discard);
+        this.sql = null;
+        this.executor = null;
+        this.batchArgs = new ArrayList<>();
+        this.results = new ArrayList<>();
+    }
+}
@@ -0,0 +1,25 @@
+package com.miniSpring.metrics;
+
+/**
+ * ClassName: HistogramSnapshot
+ * Description:
+ * LatencyHistogram某一时刻的统计结果，耗时单位均为纳秒
+ * @param count 记录次数
+ * @param mean 平均耗时
+ * @param max 最大耗时
+ * @param p50 50分位
+ * @param p99 99分位
+ * @param p999 99.9分位
+ * @param throughput 自创建或上次reset以来的平均吞吐量（次/秒）
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 10:40
+ * @Version 1.0
+ */
+public record HistogramSnapshot(long count, double mean, long max, long p50, long p99, long p999, double throughput) {
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, p999=%.3fms, max=%.3fms, throughput=%.1f/s",
+                count, mean / 1e6, p50 / 1e6, p99 / 1e6, p999 / 1e6, max / 1e6, throughput);
+    }
+}
@@ -0,0 +1,162 @@
+package com.miniSpring.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ClassName: LatencyHistogram
+ * Description:
+ * 无锁的对数-线性直方图（类似HdrHistogram），用于记录耗时（单位纳秒）
+ *  - 值小于64时每个值一个桶；之后每个2的幂区间再线性划分为32个子桶，相对误差约3%
+ *  - 写入按线程分散到多个recorder（条带），每个recorder是一个AtomicLongArray，读取时再合并，避免多线程争用同一缓存行
+ *  - record()路径上不分配任何对象
+ * @Author Jeffer Chen
+ * @Create 2026/10/19 10:12
+ * @Version 1.0
+ */
+public class LatencyHistogram {
+    //每个2的幂区间的子桶数为 2^SUB_BUCKET_BITS
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    //线性区间 [0, 2 * SUB_BUCKET_COUNT) 每个值一个桶
+    static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    //long最大值63位，最高的shift为 62 - SUB_BUCKET_BITS
+    static final int BUCKET_COUNT = (62 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+
+    //每个recorder末尾额外存 count、sum、max 三个值
+    static final int COUNT_INDEX = BUCKET_COUNT;
+    static final int SUM_INDEX = BUCKET_COUNT + 1;
+    static final int MAX_INDEX = BUCKET_COUNT + 2;
+    static final int RECORDER_LENGTH = BUCKET_COUNT + 3;
+
+    final AtomicLongArray[] recorders;
+    final int mask;
+    //开始统计的时间（创建或上次reset），用于计算吞吐量
+    volatile long startNanos = System.nanoTime();
+
+    public LatencyHistogram() {
+        //每个recorder约15KB，条带数量不超过8个
+        this(Math.min(Runtime.getRuntime().availableProcessors(), 8));
+    }
+
+    /**
+     * @param stripes recorder数量，会向上取整为2的幂
+     */
+    public LatencyHistogram(int stripes) {
+        int n = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.recorders = new AtomicLongArray[n];
+        for (int i = 0; i < n; i++) {
+            this.recorders[i] = new AtomicLongArray(RECORDER_LENGTH);
+        }
+        this.mask = n - 1;
+    }
+
+    /**
+     * 记录一次耗时，负数按0处理
+     * @param nanos
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        //按线程id选择recorder，同一线程总是写同一个recorder
+        AtomicLongArray recorder = this.recorders[(int) Thread.currentThread().getId() & this.mask];
+        recorder.getAndIncrement(bucketIndex(value));
+        recorder.getAndIncrement(COUNT_INDEX);
+        recorder.getAndAdd(SUM_INDEX, value);
+        long max;
+        while (value > (max = recorder.get(MAX_INDEX))) {
+            if (recorder.compareAndSet(MAX_INDEX, max, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 合并所有recorder，返回当前快照
+     * @return
+     */
+    public HistogramSnapshot snapshot() {
+        long[] buckets = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray recorder : this.recorders) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets[i] += recorder.get(i);
+            }
+            count += recorder.get(COUNT_INDEX);
+            sum += recorder.get(SUM_INDEX);
+            max = Math.max(max, recorder.get(MAX_INDEX));
+        }
+        //各recorder并非原子地一起读取，以桶的合计为准
+        long total = 0;
+        for (long b : buckets) {
+            total += b;
+        }
+        long elapsed = System.nanoTime() - this.startNanos;
+        double throughput = elapsed <= 0 ? 0 : count * 1_000_000_000.0 / elapsed;
+        return new HistogramSnapshot(count, count == 0 ? 0 : (double) sum / count, max,
+                //桶的代表值是桶内最大值，不应超过实际记录到的最大值
+                Math.min(max, valueAtPercentile(buckets, total, 50.0)),
+                Math.min(max, valueAtPercentile(buckets, total, 99.0)),
+                Math.min(max, valueAtPercentile(buckets, total, 99.9)),
+                throughput);
+    }
+
+    /**
+     * 清空所有数据并重新开始计算吞吐量（非原子，清空期间的并发记录可能部分保留）
+     */
+    public void reset() {
+        this.startNanos = System.nanoTime();
+        for (AtomicLongArray recorder : this.recorders) {
+            for (int i = 0; i < RECORDER_LENGTH; i++) {
+                recorder.set(i, 0);
+            }
+        }
+    }
+
+    static long valueAtPercentile(long[] buckets, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        //第rank个值所在的桶（rank从1开始）
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return highestEquivalentValue(buckets.length - 1);
+    }
+
+    /**
+     * 计算value所在的桶下标
+     * @param value 非负
+     * @return
+     */
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        //最高位所在位置，value >= 64 时 msb >= 6
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        //mantissa取值 [SUB_BUCKET_COUNT, 2 * SUB_BUCKET_COUNT)
+        int mantissa = (int) (value >>> shift);
+        return shift * SUB_BUCKET_COUNT + mantissa;
+    }
+
+    /**
+     * 桶内最大的值，作为该桶的代表值
+     * @param index
+     * @return
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long mantissa = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
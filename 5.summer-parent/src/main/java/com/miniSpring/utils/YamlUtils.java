@@ -53,6 +53,19 @@ public class YamlUtils {
                 convertTo(subMap, prefix + key + ".", plain);
             } else if (value instanceof List) {
                 plain.put(prefix + key, value);
+                //列表元素同时展开为 key[0]、key[0].sub 形式，便于通过PropertyResolver读取
+                List<?> list = (List<?>) value;
+                for (int i = 0; i < list.size(); i++) {
+                    Object item = list.get(i);
+                    String indexed = prefix + key + "[" + i + "]";
+                    if (item instanceof Map) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> subMap = (Map<String, Object>) item;
+                        convertTo(subMap, indexed + ".", plain);
+                    } else if (item != null) {
+                        plain.put(indexed, item.toString());
+                    }
+                }
             } else {
                 plain.put(prefix + key, value.toString());
             }
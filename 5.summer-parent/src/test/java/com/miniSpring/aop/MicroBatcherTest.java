@@ -0,0 +1,146 @@
+package com.miniSpring.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: MicroBatcherTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 18:00
+ * @Version 1.0
+ */
+public class MicroBatcherTest {
+    public static class Repository {
+        final List<List<Object>> calls = new CopyOnWriteArrayList<>();
+        //查询key 0时阻塞，模拟正在执行的批次
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        public Map<Object, String> findAll(List<Object> keys) throws InterruptedException {
+            this.calls.add(keys);
+            if (keys.contains(0)) {
+                this.gate.await();
+            }
+            Map<Object, String> result = new HashMap<>();
+            keys.forEach(k -> result.put(k, "v" + k));
+            return result;
+        }
+
+        public List<String> findList(List<Object> keys) {
+            this.calls.add(keys);
+            List<String> result = new ArrayList<>();
+            keys.forEach(k -> result.add("v" + k));
+            //少返回一个结果
+            return result.subList(0, result.size() - 1);
+        }
+
+        public Map<Object, String> fail(List<Object> keys) {
+            throw new IllegalStateException("down");
+        }
+
+        public Map<Object, Integer> count(List<Object> keys) {
+            Map<Object, Integer> result = new HashMap<>();
+            keys.stream().filter(k -> !"missing".equals(k)).forEach(k -> result.put(k, 1));
+            return result;
+        }
+    }
+
+    MicroBatcher batcher(Repository repository, String method, int maxSize, long maxDelayMicros) throws Exception {
+        return new MicroBatcher(repository, Repository.class.getMethod(method, List.class), maxSize, maxDelayMicros);
+    }
+
+    static CompletableFuture<Object> submitAsync(MicroBatcher batcher, Object key) {
+        CompletableFuture<Object> f = new CompletableFuture<>();
+        new Thread(() -> {
+            try {
+                f.complete(batcher.submit(key));
+            } catch (Throwable e) {
+                f.completeExceptionally(e);
+            }
+        }).start();
+        return f;
+    }
+
+    @Test
+    public void testUncontendedExecutesImmediately() throws Throwable {
+        Repository repository = new Repository();
+        //没有并发调用时不等待maxDelay（10秒）
+        MicroBatcher batcher = batcher(repository, "findAll", 10, 10_000_000);
+        long start = System.nanoTime();
+        assertEquals("v1", batcher.submit(1));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(List.of(List.of(1)), repository.calls);
+    }
+
+    @Test
+    public void testLeaderExecutesAfterDelay() throws Exception {
+        Repository repository = new Repository();
+        MicroBatcher batcher = batcher(repository, "findAll", 10, 1_000);
+        CompletableFuture<Object> blocked = submitAsync(batcher, 0);
+        while (repository.calls.isEmpty()) {
+            Thread.onSpinWait();
+        }
+        //有正在执行的批次，新批次等待maxDelay后执行
+        CompletableFuture<Object> a = submitAsync(batcher, 1);
+        assertEquals("v1", a.get(5, TimeUnit.SECONDS));
+        repository.gate.countDown();
+        assertEquals("v0", blocked.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(List.of(0), List.of(1)), repository.calls);
+    }
+
+    @Test
+    public void testFullBatchExecutesOnce() throws Exception {
+        Repository repository = new Repository();
+        MicroBatcher batcher = batcher(repository, "findAll", 3, 10_000_000);
+        CompletableFuture<Object> blocked = submitAsync(batcher, 0);
+        while (repository.calls.isEmpty()) {
+            Thread.onSpinWait();
+        }
+        //有并发时leader最多等待10秒，凑满3个后立即执行
+        CompletableFuture<Object> a = submitAsync(batcher, 1);
+        CompletableFuture<Object> b = submitAsync(batcher, 2);
+        CompletableFuture<Object> c = submitAsync(batcher, 1);
+        assertEquals("v1", a.get(5, TimeUnit.SECONDS));
+        assertEquals("v2", b.get(5, TimeUnit.SECONDS));
+        assertEquals("v1", c.get(5, TimeUnit.SECONDS));
+        repository.gate.countDown();
+        assertEquals("v0", blocked.get(5, TimeUnit.SECONDS));
+        //相同key只查询一次
+        assertEquals(2, repository.calls.size());
+        assertEquals(2, repository.calls.get(1).size());
+    }
+
+    @Test
+    public void testNullForPrimitiveReturnType() throws Throwable {
+        MicroBatcher batcher = new MicroBatcher(new Repository(), Repository.class.getMethod("count", List.class),
+                int.class, 10, 1_000);
+        assertEquals(1, batcher.submit("a"));
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> batcher.submit("missing"));
+        assertTrue(e.getMessage().contains("primitive type int"), e.getMessage());
+    }
+
+    @Test
+    public void testListResultSizeMismatch() throws Exception {
+        MicroBatcher batcher = batcher(new Repository(), "findList", 10, 1_000);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> batcher.submit(1));
+        assertTrue(e.getMessage().contains("returned 0 results for 1 keys"), e.getMessage());
+    }
+
+    @Test
+    public void testBulkMethodException() throws Exception {
+        MicroBatcher batcher = batcher(new Repository(), "fail", 10, 1_000);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> batcher.submit(1));
+        assertEquals("down", e.getMessage());
+    }
+}
@@ -0,0 +1,59 @@
+package com.miniSpring.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationHandler;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: ProxyResolverTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 15:00
+ * @Version 1.0
+ */
+public class ProxyResolverTest {
+    public static class Greeter {
+        public String hello(String name) {
+            return "Hello, " + name;
+        }
+    }
+
+    static final InvocationHandler UPPER = (bean, method, args) -> ((String) method.invoke(bean, args)).toUpperCase();
+
+    @Test
+    public void testCreateProxy() {
+        ProxyResolver resolver = new ProxyResolver();
+        Greeter proxy = resolver.createProxy(new Greeter(), UPPER);
+        assertEquals("HELLO, BOB", proxy.hello("Bob"));
+        assertNotSame(Greeter.class, proxy.getClass());
+        assertSame(Greeter.class, resolver.getTargetClass(proxy.getClass()));
+    }
+
+    @Test
+    public void testNestedProxy() {
+        ProxyResolver resolver = new ProxyResolver();
+        Greeter inner = resolver.createProxy(new Greeter(), UPPER);
+        Greeter outer = resolver.createProxy(inner, (bean, method, args) -> method.invoke(bean, args) + "!");
+        assertEquals("HELLO, BOB!", outer.hello("Bob"));
+        assertSame(Greeter.class, resolver.getTargetClass(outer.getClass()));
+    }
+
+    @Test
+    public void testReleaseOnlyOwnClassLoaders() {
+        ProxyResolver first = new ProxyResolver();
+        ProxyResolver second = new ProxyResolver();
+        Greeter firstProxy = first.createProxy(new Greeter(), UPPER);
+        Greeter secondProxy = second.createProxy(new Greeter(), UPPER);
+        assertNotSame(firstProxy.getClass().getClassLoader(), secondProxy.getClass().getClassLoader());
+
+        //关闭一个容器不影响另一个容器识别自己的代理类
+        first.releaseProxyClassLoaders();
+        assertSame(Greeter.class, second.getTargetClass(secondProxy.getClass()));
+        assertEquals("HELLO, BOB", secondProxy.hello("Bob"));
+        //其他容器生成的代理类不会被当作自己的代理
+        assertSame(firstProxy.getClass(), second.getTargetClass(firstProxy.getClass()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.miniSpring.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: SingleFlightInvocationHandlerTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 17:30
+ * @Version 1.0
+ */
+public class SingleFlightInvocationHandlerTest {
+    public static class Loader {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        public String load(String key) throws InterruptedException {
+            this.calls.incrementAndGet();
+            this.release.await(5, TimeUnit.SECONDS);
+            return key.toUpperCase();
+        }
+
+        public String fail(String key) {
+            throw new IllegalStateException(key);
+        }
+    }
+
+    @Test
+    public void testConcurrentCallsShareResult() throws Exception {
+        SingleFlightInvocationHandler handler = new SingleFlightInvocationHandler();
+        Loader loader = new Loader();
+        Method load = Loader.class.getMethod("load", String.class);
+        CompletableFuture<Object> first = new CompletableFuture<>();
+        CompletableFuture<Object> second = new CompletableFuture<>();
+        new Thread(() -> first.complete(invoke(handler, loader, load, "a"))).start();
+        while (handler.getInFlightCount() == 0) {
+            Thread.sleep(1);
+        }
+        Thread waiter = new Thread(() -> second.complete(invoke(handler, loader, load, "a")));
+        waiter.start();
+        //等待第二个调用阻塞（等待第一个调用的结果）
+        while (waiter.getState() != Thread.State.WAITING && waiter.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(1);
+        }
+        loader.release.countDown();
+        assertEquals("A", first.get(5, TimeUnit.SECONDS));
+        assertEquals("A", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loader.calls.get());
+        assertEquals(0, handler.getInFlightCount());
+
+        //执行结束后不缓存结果
+        assertEquals("A", invoke(handler, loader, load, "a"));
+        assertEquals(2, loader.calls.get());
+    }
+
+    @Test
+    public void testThrowsTargetException() throws Exception {
+        SingleFlightInvocationHandler handler = new SingleFlightInvocationHandler();
+        Method fail = Loader.class.getMethod("fail", String.class);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> handler.invoke(new Loader(), fail, new Object[] { "x" }));
+        assertEquals("x", e.getMessage());
+        assertEquals(0, handler.getInFlightCount());
+    }
+
+    static Object invoke(SingleFlightInvocationHandler handler, Object target, Method method, Object arg) {
+        try {
+            return handler.invoke(target, method, new Object[] { arg });
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
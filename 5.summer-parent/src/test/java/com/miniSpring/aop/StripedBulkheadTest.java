@@ -0,0 +1,72 @@
+package com.miniSpring.aop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: StripedBulkheadTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 15:30
+ * @Version 1.0
+ */
+public class StripedBulkheadTest {
+    @Test
+    public void testRejectWhenFull() throws Exception {
+        StripedBulkhead bulkhead = new StripedBulkhead("test", 4, 0, 2);
+        int[] stripes = new int[4];
+        for (int i = 0; i < 4; i++) {
+            stripes[i] = bulkhead.acquire();
+            assertTrue(stripes[i] >= 0);
+        }
+        assertEquals(4, bulkhead.getActiveCount());
+        assertEquals(-1, bulkhead.acquire());
+        assertEquals(1, bulkhead.getRejectedCount());
+
+        bulkhead.release(stripes[0]);
+        assertEquals(3, bulkhead.getActiveCount());
+        assertTrue(bulkhead.acquire() >= 0);
+    }
+
+    @Test
+    public void testWaiterTakesPermitReleasedOnOtherStripe() throws Exception {
+        //每个条带1个许可，全部占用
+        StripedBulkhead bulkhead = new StripedBulkhead("test", 4, 10_000, 4);
+        for (int i = 0; i < 4; i++) {
+            bulkhead.acquire();
+        }
+        CompletableFuture<Integer> waiter = new CompletableFuture<>();
+        Thread t = new Thread(() -> {
+            try {
+                waiter.complete(bulkhead.acquire());
+            } catch (Throwable e) {
+                waiter.completeExceptionally(e);
+            }
+        });
+        t.start();
+        while (bulkhead.waiters.get() == 0) {
+            Thread.sleep(1);
+        }
+        //释放不是等待线程自己条带上的许可，等待线程也应获得
+        int home = (int) (t.getId() % 4);
+        int other = (home + 1) % 4;
+        bulkhead.release(other);
+        assertEquals(other, waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(0, bulkhead.getRejectedCount());
+    }
+
+    @Test
+    public void testWaitTimeout() throws Exception {
+        StripedBulkhead bulkhead = new StripedBulkhead("test", 1, 20, 1);
+        assertEquals(0, bulkhead.acquire());
+        long start = System.nanoTime();
+        assertEquals(-1, bulkhead.acquire());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(1, bulkhead.getRejectedCount());
+    }
+}
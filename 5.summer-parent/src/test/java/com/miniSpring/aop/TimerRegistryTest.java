@@ -0,0 +1,33 @@
+package com.miniSpring.aop;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: TimerRegistryTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/22 11:30
+ * @Version 1.0
+ */
+public class TimerRegistryTest {
+    public static class Service {
+        public String find(String name) {
+            return name;
+        }
+
+        public String find(long id, int[] flags) {
+            return String.valueOf(id);
+        }
+    }
+
+    @Test
+    public void testMetricNameDistinguishesOverloads() throws Exception {
+        String byName = TimerRegistry.metricName(Service.class.getMethod("find", String.class));
+        String byId = TimerRegistry.metricName(Service.class.getMethod("find", long.class, int[].class));
+        assertEquals("com.miniSpring.aop.TimerRegistryTest$Service.find(java.lang.String)", byName);
+        assertEquals("com.miniSpring.aop.TimerRegistryTest$Service.find(long,int[])", byId);
+    }
+}
@@ -0,0 +1,40 @@
+package com.miniSpring.aop;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: TokenBucketRateLimiterTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 15:40
+ * @Version 1.0
+ */
+public class TokenBucketRateLimiterTest {
+    @Test
+    public void testBurstThenReject() {
+        //每秒1个令牌，桶容量3：初始可连续获取3个
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 1, 3);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void testRefill() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter("test", 50, 1);
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        Thread.sleep(40);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter("test", 0, 1));
+    }
+}
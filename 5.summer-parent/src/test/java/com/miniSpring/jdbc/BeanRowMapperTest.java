@@ -0,0 +1,80 @@
+package com.miniSpring.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: BeanRowMapperTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 16:10
+ * @Version 1.0
+ */
+public class BeanRowMapperTest extends JdbcTestBase {
+    public static class User {
+        public long id;
+        private String name;
+        private int age;
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+    public record UserRecord(long id, String name, Integer age) {
+    }
+
+    void insertUsers() {
+        this.jdbcTemplate.update(INSERT_USER, "a", 1);
+        this.jdbcTemplate.update(INSERT_USER, "b", null);
+    }
+
+    @Test
+    public void testMapBean() {
+        insertUsers();
+        List<User> users = this.jdbcTemplate.queryForList("SELECT id, name, age FROM users ORDER BY id", User.class);
+        assertEquals(2, users.size());
+        assertEquals(1, users.get(0).id);
+        assertEquals("a", users.get(0).name);
+        assertEquals(1, users.get(0).age);
+        //NULL写入基本类型为0
+        assertEquals(0, users.get(1).age);
+    }
+
+    @Test
+    public void testMapRecord() {
+        insertUsers();
+        List<UserRecord> users = this.jdbcTemplate.queryForList("SELECT id, name, age FROM users ORDER BY id",
+                UserRecord.class);
+        assertEquals(List.of(new UserRecord(1, "a", 1), new UserRecord(2, "b", null)), users);
+    }
+
+    @Test
+    public void testDifferentColumnsPerResultSet() {
+        insertUsers();
+        BeanRowMapper<User> mapper = BeanRowMapper.of(User.class);
+        //同一个mapper交替用于不同列序列的结果集，每个结果集使用自己的列映射
+        try (var byName = this.jdbcTemplate.queryForStream("SELECT name, id FROM users ORDER BY id", mapper);
+             var byAge = this.jdbcTemplate.queryForStream("SELECT age, name FROM users ORDER BY id", mapper)) {
+            var nameIterator = byName.iterator();
+            var ageIterator = byAge.iterator();
+            User first = nameIterator.next();
+            User firstAge = ageIterator.next();
+            User second = nameIterator.next();
+            assertEquals("a", first.name);
+            assertEquals(1, first.id);
+            assertEquals(1, firstAge.age);
+            assertEquals(0, firstAge.id);
+            assertEquals("b", second.name);
+            assertEquals(2, second.id);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.jdbc.tx.DataSourceTransactionManager;
+import com.miniSpring.jdbc.tx.TransactionDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: JdbcTemplateTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 14:10
+ * @Version 1.0
+ */
+public class JdbcTemplateTest extends JdbcTestBase {
+    record NewUser(String name, Integer age) {}
+
+    static final ParameterizedSetter<NewUser> SETTER = (ps, user) -> {
+        ps.setString(1, user.name());
+        if (user.age() == null) {
+            ps.setNull(2, Types.INTEGER);
+        } else {
+            ps.setInt(2, user.age());
+        }
+    };
+
+    @Test
+    public void testUpdateWithNullArgument() {
+        //(sql, x, null)必须走可变参数的update，而不是按setter绑定的updateItem
+        assertEquals(1, this.jdbcTemplate.update(INSERT_USER, "a", null));
+        Number id = this.jdbcTemplate.updateAndReturnGeneratedKey(INSERT_USER, "b", null);
+        assertEquals("b", this.jdbcTemplate.queryForObject("SELECT name FROM users WHERE id = ? AND age IS NULL", String.class, id));
+        assertEquals(2, this.jdbcTemplate.queryForNumber("SELECT COUNT(*) FROM users WHERE age IS NULL").intValue());
+    }
+
+    @Test
+    public void testUpdateItem() {
+        assertEquals(1, this.jdbcTemplate.updateItem(INSERT_USER, new NewUser("a", 1), SETTER));
+        Number id = this.jdbcTemplate.updateItemAndReturnGeneratedKey(INSERT_USER, new NewUser("b", null), SETTER);
+        assertEquals("b", this.jdbcTemplate.queryForObject("SELECT name FROM users WHERE id = ?", String.class, id));
+        assertEquals(1, this.jdbcTemplate.queryForNumber("SELECT COUNT(*) FROM users WHERE age IS NULL").intValue());
+    }
+
+    @Test
+    public void testCachedStatementResetsMaxRows() {
+        for (int i = 0; i < 3; i++) {
+            this.jdbcTemplate.update(INSERT_USER, "u" + i, i);
+        }
+        DataSourceTransactionManager tm = new DataSourceTransactionManager(this.dataSource);
+        tm.execute(TransactionDefinition.DEFAULT, () -> {
+            String sql = "SELECT name, age FROM users ORDER BY id";
+            this.jdbcTemplate.setMaxRows(1);
+            assertEquals(1, this.jdbcTemplate.queryForList(sql, NewUser.class).size());
+            //同一事务内复用缓存的PreparedStatement，maxRows=0必须重新生效
+            this.jdbcTemplate.setMaxRows(0);
+            assertEquals(3, this.jdbcTemplate.queryForList(sql, NewUser.class).size());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,44 @@
+package com.miniSpring.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+/**
+ * ClassName: JdbcTestBase
+ * Description:
+ * 每个测试使用临时目录下新建的sqlite数据库，连接池配置与JdbcConfiguration相同（autoCommit=false）
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 09:10
+ * @Version 1.0
+ */
+public class JdbcTestBase {
+    public static final String CREATE_USER = "CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, name VARCHAR(255) NOT NULL, age INTEGER)";
+    public static final String INSERT_USER = "INSERT INTO users (name, age) VALUES (?, ?)";
+
+    @TempDir
+    public Path tempDir;
+
+    public DataSource dataSource;
+    public JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void createDataSource() {
+        this.dataSource = createDataSource("test.db");
+        this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+        this.jdbcTemplate.update(CREATE_USER);
+    }
+
+    @AfterEach
+    public void closeDataSource() throws Exception {
+        ((AutoCloseable) this.dataSource).close();
+    }
+
+    public DataSource createDataSource(String fileName) {
+        String url = "jdbc:sqlite:" + this.tempDir.resolve(fileName);
+        return JdbcConfiguration.createDataSource(url, "sa", "", "org.sqlite.JDBC", 4, 1, 30000, false, true);
+    }
+}
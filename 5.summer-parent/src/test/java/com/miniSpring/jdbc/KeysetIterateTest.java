@@ -0,0 +1,89 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.exception.DataAccessException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: KeysetIterateTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 10:40
+ * @Version 1.0
+ */
+public class KeysetIterateTest extends JdbcTestBase {
+    static final RowMapper<String> NAME = (rs, rowNum) -> rs.getString("name");
+
+    void insertUsers(int n) {
+        this.jdbcTemplate.batchUpdate(INSERT_USER,
+                IntStream.rangeClosed(1, n).mapToObj(i -> new Object[] { "u" + i, i % 3 }).toList());
+    }
+
+    List<String> expectedNames(int from, int to) {
+        return IntStream.rangeClosed(from, to).mapToObj(i -> "u" + i).toList();
+    }
+
+    @Test
+    public void testAllPagesInKeyOrder() {
+        insertUsers(10);
+        try (Stream<String> names = this.jdbcTemplate.keysetIterate("SELECT id, name FROM users", "id", 3, NAME)) {
+            assertEquals(expectedNames(1, 10), names.toList());
+        }
+    }
+
+    @Test
+    public void testLastPageFull() {
+        insertUsers(6);
+        try (Stream<String> names = this.jdbcTemplate.keysetIterate("SELECT id, name FROM users", "id", 3, NAME)) {
+            assertEquals(expectedNames(1, 6), names.toList());
+        }
+    }
+
+    @Test
+    public void testBaseQueryArgs() {
+        insertUsers(10);
+        try (Stream<String> names = this.jdbcTemplate.keysetIterate("SELECT id, name FROM users WHERE age = ?", "id",
+                2, NAME, 0)) {
+            assertEquals(List.of("u3", "u6", "u9"), names.toList());
+        }
+    }
+
+    @Test
+    public void testPrefetch() {
+        insertUsers(25);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Stream<String> names = this.jdbcTemplate.keysetIterate("SELECT id, name FROM users", "id", 4, NAME,
+                executor)) {
+            assertEquals(expectedNames(1, 25), names.toList());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testNullKeyRejected() {
+        //sqlite中NULL排在最前：第一页满页且最后一行的key为NULL，修复前会反复加载第一页
+        this.jdbcTemplate.update(INSERT_USER, new Object[] { "a", null });
+        this.jdbcTemplate.update(INSERT_USER, new Object[] { "b", null });
+        this.jdbcTemplate.update(INSERT_USER, "c", 1);
+        try (Stream<String> names = this.jdbcTemplate.keysetIterate("SELECT age, name FROM users", "age", 2, NAME)) {
+            assertThrows(DataAccessException.class, () -> names.limit(10).toList());
+        }
+    }
+
+    @Test
+    public void testIteratorRejectsFullPageWithoutKey() {
+        KeysetIterator<String> iterator = new KeysetIterator<>(2,
+                lastKey -> new KeysetIterator.Page<>(List.of("x", "y"), null), null);
+        assertThrows(DataAccessException.class, iterator::hasNext);
+        assertFalse(iterator.hasNext());
+    }
+}
@@ -0,0 +1,182 @@
+package com.miniSpring.jdbc;
+
+import com.miniSpring.exception.TransactionException;
+import com.miniSpring.jdbc.tx.DataSourceTransactionManager;
+import com.miniSpring.jdbc.tx.TransactionDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: QueryResultCacheTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 16:40
+ * @Version 1.0
+ */
+public class QueryResultCacheTest extends JdbcTestBase {
+    static final String COUNT = "SELECT COUNT(*) FROM users";
+
+    public static class User {
+        public long id;
+        public String name;
+    }
+
+    public record UserRecord(long id, String name) {
+    }
+
+    //final字段无法复制
+    public static class Tagged {
+        private final List<String> tags = new java.util.ArrayList<>();
+        public long id;
+        public String name;
+    }
+
+    QueryResultCache cache;
+
+    @BeforeEach
+    public void createCache() {
+        this.cache = new QueryResultCache(16, 60_000);
+        this.jdbcTemplate.setQueryCache(this.cache);
+        this.jdbcTemplate.update(INSERT_USER, "a", 1);
+    }
+
+    int count() {
+        return this.jdbcTemplate.queryForNumber(COUNT).intValue();
+    }
+
+    @Test
+    public void testScalarHitAndUpdateInvalidates() {
+        assertEquals(1, count());
+        assertEquals(1, count());
+        assertEquals(1, this.cache.getHits());
+
+        this.jdbcTemplate.update(INSERT_USER, "b", 2);
+        assertEquals(2, count());
+        assertEquals(1, this.cache.getHits());
+    }
+
+    @Test
+    public void testRecordListCached() {
+        String sql = "SELECT id, name FROM users";
+        List<UserRecord> first = this.jdbcTemplate.queryForList(sql, UserRecord.class);
+        first.add(new UserRecord(9, "x"));
+        List<UserRecord> second = this.jdbcTemplate.queryForList(sql, UserRecord.class);
+        assertEquals(List.of(new UserRecord(1, "a")), second);
+        assertEquals(1, this.cache.getHits());
+    }
+
+    @Test
+    public void testBeansCachedAsCopies() {
+        String sql = "SELECT id, name FROM users";
+        List<User> first = this.jdbcTemplate.queryForList(sql, User.class);
+        //修改返回的List和bean不影响缓存
+        first.get(0).name = "changed";
+        first.add(new User());
+        List<User> second = this.jdbcTemplate.queryForList(sql, User.class);
+        assertEquals(1, second.size());
+        assertEquals("a", second.get(0).name);
+        assertEquals(1, this.cache.getHits());
+        assertNotSame(second.get(0), this.jdbcTemplate.queryForList(sql, User.class).get(0));
+
+        User one = this.jdbcTemplate.queryForObject("SELECT id, name FROM users WHERE id = ?", User.class, 1);
+        one.name = "changed";
+        assertEquals("a", this.jdbcTemplate.queryForObject("SELECT id, name FROM users WHERE id = ?", User.class, 1).name);
+    }
+
+    @Test
+    public void testUncopyableBeansNotCached() {
+        String sql = "SELECT id, name FROM users";
+        List<Tagged> first = this.jdbcTemplate.queryForList(sql, Tagged.class);
+        first.sort((x, y) -> 0);
+        first.add(new Tagged());
+        List<Tagged> second = this.jdbcTemplate.queryForList(sql, Tagged.class);
+        assertEquals(1, second.size());
+        assertEquals(0, this.cache.size());
+        assertEquals(0, this.cache.getHits());
+    }
+
+    @Test
+    public void testExecuteInvalidatesAll() {
+        assertEquals(1, count());
+        this.jdbcTemplate.execute(con -> {
+            try (Statement st = con.createStatement()) {
+                return st.executeUpdate("INSERT INTO users (name, age) VALUES ('b', 2)");
+            }
+        });
+        assertEquals(2, count());
+
+        this.jdbcTemplate.execute(con -> con.prepareStatement("DELETE FROM users"),
+                ps -> ps.executeUpdate());
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void testTransactionReadsOwnWritesAndInvalidatesOnCommit() {
+        DataSourceTransactionManager tm = new DataSourceTransactionManager(this.dataSource);
+        assertEquals(1, count());
+        tm.execute(TransactionDefinition.DEFAULT, () -> {
+            this.jdbcTemplate.update(INSERT_USER, "b", 2);
+            //事务内修改过的表不读缓存
+            assertEquals(2, count());
+            return null;
+        });
+        assertEquals(2, count());
+    }
+
+    @Test
+    public void testRollbackKeepsEntries() {
+        DataSourceTransactionManager tm = new DataSourceTransactionManager(this.dataSource);
+        assertEquals(1, count());
+        assertThrows(TransactionException.class, () -> tm.execute(TransactionDefinition.DEFAULT, () -> {
+            this.jdbcTemplate.update(INSERT_USER, "b", 2);
+            throw new IllegalStateException("fail");
+        }));
+        long hits = this.cache.getHits();
+        assertEquals(1, count());
+        assertEquals(hits + 1, this.cache.getHits());
+    }
+
+    @Test
+    public void testRepeatedInvalidationStaysBounded() {
+        QueryResultCache cache = new QueryResultCache(100, 60_000);
+        for (int i = 0; i < 10_000; i++) {
+            final int value = i;
+            assertEquals(value, cache.query(COUNT, null, "mapper", () -> value));
+            cache.invalidate("UPDATE users SET age = 1");
+        }
+        assertEquals(1, cache.size());
+        assertEquals(10_000, cache.getMisses());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        QueryResultCache cache = new QueryResultCache(2, 60_000);
+        cache.query(COUNT, new Object[] { 1 }, "mapper", () -> "a");
+        cache.query(COUNT, new Object[] { 2 }, "mapper", () -> "b");
+        //访问第一个条目后，超出容量时淘汰第二个
+        assertEquals("a", cache.query(COUNT, new Object[] { 1 }, "mapper", () -> "reloaded"));
+        cache.query(COUNT, new Object[] { 3 }, "mapper", () -> "c");
+        assertEquals(2, cache.size());
+        assertEquals("a", cache.query(COUNT, new Object[] { 1 }, "mapper", () -> "reloaded"));
+        assertEquals("reloaded", cache.query(COUNT, new Object[] { 2 }, "mapper", () -> "reloaded"));
+    }
+
+    @Test
+    public void testIsImmutable() {
+        assertTrue(QueryResultCache.isImmutable(null));
+        assertTrue(QueryResultCache.isImmutable("a"));
+        assertTrue(QueryResultCache.isImmutable(1L));
+        assertTrue(QueryResultCache.isImmutable(java.time.LocalDate.now()));
+        assertTrue(QueryResultCache.isImmutable(List.of(new UserRecord(1, "a"))));
+        assertFalse(QueryResultCache.isImmutable(new User()));
+        assertFalse(QueryResultCache.isImmutable(new java.util.Date()));
+        assertFalse(QueryResultCache.isImmutable(new java.util.ArrayList<>(List.of("a"))));
+        assertFalse(QueryResultCache.isImmutable(List.of(new User())));
+    }
+}
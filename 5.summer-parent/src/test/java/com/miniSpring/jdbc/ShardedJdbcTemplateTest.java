@@ -0,0 +1,79 @@
+package com.miniSpring.jdbc;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: ShardedJdbcTemplateTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 17:10
+ * @Version 1.0
+ */
+public class ShardedJdbcTemplateTest extends JdbcTestBase {
+    ShardedJdbcTemplate sharded;
+
+    @BeforeEach
+    public void createShards() {
+        this.sharded = new ShardedJdbcTemplate(new ShardRoutingDataSource(
+                List.of(createDataSource("shard0.db"), createDataSource("shard1.db"))), ShardFunction.MODULO, 2);
+        for (JdbcTemplate shard : this.sharded.getShardTemplates()) {
+            shard.update(CREATE_USER);
+        }
+    }
+
+    @AfterEach
+    public void closeShards() throws Exception {
+        this.sharded.close();
+    }
+
+    @Test
+    public void testMergeUnordered() {
+        List<List<Integer>> results = List.of(List.of(3, 1), List.of(), List.of(2));
+        assertEquals(List.of(3, 1, 2), ShardedJdbcTemplate.merge(results, null, 0));
+        assertEquals(List.of(3, 1), ShardedJdbcTemplate.merge(results, null, 2));
+    }
+
+    @Test
+    public void testMergeOrdered() {
+        List<List<Integer>> results = List.of(List.of(5, 1, 3), List.of(), List.of(4, 2, 6));
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), ShardedJdbcTemplate.merge(results, Comparator.naturalOrder(), 0));
+        assertEquals(List.of(6, 5, 4), ShardedJdbcTemplate.merge(results, Comparator.reverseOrder(), 3));
+        assertEquals(List.of(), ShardedJdbcTemplate.merge(List.<List<Integer>>of(List.of(), List.of()),
+                Comparator.naturalOrder(), 10));
+    }
+
+    @Test
+    public void testRouteAndQueryAll() {
+        for (int age = 1; age <= 5; age++) {
+            this.sharded.update(age, INSERT_USER, "u" + age, age);
+        }
+        //按age取模路由：偶数在分片0，奇数在分片1
+        assertEquals(2, this.sharded.getShard(0).queryForNumber("SELECT COUNT(*) FROM users").intValue());
+        assertEquals(3, this.sharded.getShard(1).queryForNumber("SELECT COUNT(*) FROM users").intValue());
+        assertEquals(5, this.sharded.queryForLongSumOnAll("SELECT COUNT(*) FROM users"));
+        assertEquals(List.of("u5", "u4", "u3"), this.sharded.queryForSortedListOnAll(
+                "SELECT name FROM users ORDER BY age DESC", (rs, rowNum) -> rs.getString(1),
+                Comparator.<String>reverseOrder(), 3));
+        assertArrayEquals(new int[] { 2, 3 }, this.sharded.updateOnAll("DELETE FROM users"));
+    }
+
+    @Test
+    public void testRowNumStartsAtOne() {
+        for (int age = 1; age <= 4; age++) {
+            this.sharded.update(age, INSERT_USER, "u" + age, age);
+        }
+        //与JdbcTemplate一致，每个分片的行号从1开始
+        assertEquals(List.of(1, 2), this.sharded.queryForList(1, "SELECT name FROM users ORDER BY age",
+                (rs, rowNum) -> rowNum));
+        assertEquals(List.of(1, 2, 1, 2), this.sharded.queryForListOnAll("SELECT name FROM users ORDER BY age",
+                (rs, rowNum) -> rowNum));
+    }
+}
@@ -0,0 +1,64 @@
+package com.miniSpring.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: SqlTablesTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 16:50
+ * @Version 1.0
+ */
+public class SqlTablesTest {
+    @Test
+    public void testWrittenTables() {
+        assertEquals(Set.of("users"), SqlTables.writtenTables("INSERT INTO users (name) VALUES (?)"));
+        assertEquals(Set.of("users"), SqlTables.writtenTables("INSERT INTO `app`.`Users` VALUES (?)"));
+        assertEquals(Set.of("users"), SqlTables.writtenTables("UPDATE LOW_PRIORITY users SET name = ? WHERE id = ?"));
+        assertEquals(Set.of("users"), SqlTables.writtenTables("DELETE FROM users WHERE id = ?"));
+        assertEquals(Set.of("users"), SqlTables.writtenTables("TRUNCATE TABLE users"));
+        assertEquals(Set.of("users", "orders"),
+                SqlTables.writtenTables("DELETE u FROM users u JOIN orders o ON o.user_id = u.id"));
+        assertNull(SqlTables.writtenTables("CREATE TABLE t (id INT)"));
+        assertNull(SqlTables.writtenTables(""));
+    }
+
+    @Test
+    public void testReadTables() {
+        assertEquals(Set.of("users"), SqlTables.readTables("SELECT * FROM users WHERE id = ?"));
+        assertEquals(Set.of("users", "orders"),
+                SqlTables.readTables("SELECT u.name FROM users u JOIN orders o ON o.user_id = u.id"));
+        assertEquals(Set.of("users", "orders"), SqlTables.readTables("SELECT * FROM users AS u, orders o"));
+        //字符串常量和注释中的表名被忽略
+        assertEquals(Set.of("users"),
+                SqlTables.readTables("SELECT 'from orders' FROM users /* join orders */ -- from x\n WHERE 1 = 1"));
+        assertNull(SqlTables.readTables("SELECT * FROM users FOR UPDATE"));
+        assertNull(SqlTables.readTables("WITH t AS (SELECT 1) SELECT * FROM t"));
+        assertNull(SqlTables.readTables("SELECT 1"));
+    }
+
+    @Test
+    public void testIsKeyLookup() {
+        assertTrue(SqlTables.isKeyLookup("SELECT * FROM users WHERE id = ?", "users", "id"));
+        assertTrue(SqlTables.isKeyLookup("SELECT u.* FROM users AS u WHERE u.id = ?;", "users", "id"));
+        assertFalse(SqlTables.isKeyLookup("SELECT * FROM users WHERE name = ?", "users", "id"));
+        assertFalse(SqlTables.isKeyLookup("SELECT * FROM orders WHERE id = ?", "users", "id"));
+        assertFalse(SqlTables.isKeyLookup("SELECT * FROM users u JOIN orders o ON o.id = u.id WHERE u.id = ?",
+                "users", "id"));
+        assertFalse(SqlTables.isKeyLookup("SELECT * FROM users WHERE id IN (SELECT id FROM users) AND id = ?",
+                "users", "id"));
+    }
+
+    @Test
+    public void testSelectLabels() {
+        assertEquals(List.of("id", "name"), SqlTables.selectLabels("SELECT u.id, name AS name FROM users u"));
+        assertEquals(List.of("id", "total"), SqlTables.selectLabels("SELECT id, COUNT(*) total FROM users GROUP BY id"));
+        assertNull(SqlTables.selectLabels("SELECT * FROM users"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.miniSpring.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: StateTrackingDataSourceTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/22 10:20
+ * @Version 1.0
+ */
+public class StateTrackingDataSourceTest extends JdbcTestBase {
+
+    StateTrackingDataSource ds;
+
+    @BeforeEach
+    public void createTrackingDataSource() {
+        //单独创建，不计入建表时的调用
+        this.ds = assertInstanceOf(StateTrackingDataSource.class, createDataSource("state.db"));
+    }
+
+    @AfterEach
+    public void closeTrackingDataSource() throws Exception {
+        this.ds.close();
+    }
+
+    @Test
+    public void testOnlyUnchangedSettersAreElided() throws Exception {
+        try (Connection con = ds.getConnection()) {
+            //连接池默认autoCommit=false、readOnly=false
+            con.setAutoCommit(false);
+            con.setReadOnly(false);
+            assertEquals(2, ds.getElidedCallCount());
+
+            con.setAutoCommit(true);
+            assertTrue(con.getAutoCommit());
+            con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+            con.setAutoCommit(false);
+            assertFalse(con.getAutoCommit());
+            assertFalse(con.isReadOnly());
+            assertEquals(Connection.TRANSACTION_SERIALIZABLE, con.getTransactionIsolation());
+            con.getCatalog();
+            con.getCatalog();
+        }
+        //读取不计入省去的调用
+        Map<String, Long> counts = ds.getElidedCallCounts();
+        assertEquals(1L, counts.get("autoCommit"));
+        assertEquals(1L, counts.get("readOnly"));
+        assertEquals(1L, counts.get("isolation"));
+        assertEquals(0L, counts.get("catalog"));
+        assertEquals(3, ds.getElidedCallCount());
+    }
+
+    @Test
+    public void testStateResetOnNewConnection() throws Exception {
+        try (Connection con = ds.getConnection()) {
+            con.setAutoCommit(true);
+        }
+        //连接池归还时恢复autoCommit=false，新连接上的记录值也从默认值开始
+        try (Connection con = ds.getConnection()) {
+            assertFalse(con.getAutoCommit());
+            assertFalse(con.unwrap(StateTrackingConnection.class).delegate.getAutoCommit());
+        }
+    }
+
+    @Test
+    public void testUntrackedDataSource() throws Exception {
+        String url = "jdbc:sqlite:" + this.tempDir.resolve("untracked.db");
+        DataSource untracked = JdbcConfiguration.createDataSource(url, "sa", "", "org.sqlite.JDBC", 4, 1, 30000, false, false);
+        try {
+            assertInstanceOf(HikariDataSource.class, untracked);
+        } finally {
+            ((AutoCloseable) untracked).close();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.miniSpring.jdbc.namedparam;
+
+import com.miniSpring.jdbc.JdbcTestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: NamedParameterJdbcTemplateTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 09:30
+ * @Version 1.0
+ */
+public class NamedParameterJdbcTemplateTest extends JdbcTestBase {
+    NamedParameterJdbcTemplate template;
+
+    public record NewUser(String name, Integer age) {
+    }
+
+    @BeforeEach
+    public void createTemplate() {
+        this.template = new NamedParameterJdbcTemplate(this.jdbcTemplate, 2);
+    }
+
+    @Test
+    public void testBeanAndMapParameters() {
+        this.template.update("INSERT INTO users (name, age) VALUES (:name, :age)", new NewUser("Bob", 12));
+        this.template.update("INSERT INTO users (name, age) VALUES (:name, :age)", Map.of("name", "Alice", "age", 20));
+        assertEquals("Alice", this.template.queryForObject("SELECT name FROM users WHERE age = :age",
+                Map.of("age", 20), String.class));
+        assertEquals(2, this.template.queryForNumber("SELECT COUNT(*) FROM users", null).intValue());
+    }
+
+    @Test
+    public void testInExpansion() {
+        for (String name : List.of("a", "b", "c", "d")) {
+            this.jdbcTemplate.update(INSERT_USER, name, 1);
+        }
+        List<String> names = this.template.queryForList("SELECT name FROM users WHERE name IN (:names) ORDER BY name",
+                Map.of("names", List.of("b", "d", "x")), (rs, rowNum) -> rs.getString(1));
+        assertEquals(List.of("b", "d"), names);
+    }
+
+    @Test
+    public void testQueryForEachRow() {
+        this.jdbcTemplate.update(INSERT_USER, "a", 1);
+        this.jdbcTemplate.update(INSERT_USER, "b", 2);
+        List<String> names = new ArrayList<>();
+        this.template.queryForEachRow("SELECT name FROM users WHERE age >= :age ORDER BY id", Map.of("age", 1),
+                rs -> names.add(rs.getString(1)));
+        assertEquals(List.of("a", "b"), names);
+    }
+
+    @Test
+    public void testBatchUpdate() {
+        this.template.batchUpdate("INSERT INTO users (name, age) VALUES (:name, :age)",
+                List.of(new NewUser("a", 1), new NewUser("b", 2), new NewUser("c", 3)));
+        assertEquals(6, this.jdbcTemplate.queryForNumber("SELECT SUM(age) FROM users").intValue());
+    }
+
+    @Test
+    public void testParsedSqlCacheIsBounded() {
+        ParsedSql first = this.template.getParsedSql("SELECT :a");
+        assertSame(first, this.template.getParsedSql("SELECT :a"));
+        this.template.getParsedSql("SELECT :b");
+        this.template.getParsedSql("SELECT :c");
+        assertTrue(this.template.getCacheSize() <= 2);
+    }
+}
@@ -0,0 +1,68 @@
+package com.miniSpring.jdbc.namedparam;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: ParsedSqlTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 09:20
+ * @Version 1.0
+ */
+public class ParsedSqlTest {
+
+    @Test
+    public void testParseNamedParameters() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM users WHERE name = :name AND age > :minAge");
+        assertEquals(List.of("name", "minAge"), parsed.getParameterNames());
+        assertEquals("SELECT * FROM users WHERE name = ? AND age > ?", parsed.getJdbcSql());
+    }
+
+    @Test
+    public void testSkipQuotesCommentsAndCasts() {
+        ParsedSql parsed = ParsedSql.parse("SELECT ':notParam', \"a:b\", x::text -- :comment\n"
+                + "FROM t /* :block */ WHERE id = :id");
+        assertEquals(List.of("id"), parsed.getParameterNames());
+        assertEquals("SELECT ':notParam', \"a:b\", x::text -- :comment\nFROM t /* :block */ WHERE id = ?",
+                parsed.getJdbcSql());
+    }
+
+    @Test
+    public void testRepeatedParameter() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE a = :v OR b = :v");
+        ParsedSql.Expanded e = parsed.expand(new MapSqlParameterSource(Map.of("v", 7)));
+        assertEquals("SELECT * FROM t WHERE a = ? OR b = ?", e.sql());
+        assertArrayEquals(new Object[] { 7, 7 }, e.args());
+    }
+
+    @Test
+    public void testMixedParametersRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ParsedSql.parse("SELECT * FROM t WHERE a = ? AND b = :b"));
+    }
+
+    @Test
+    public void testExpandCollection() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE id IN (:ids) AND name = :name");
+        ParsedSql.Expanded e = parsed.expand(new MapSqlParameterSource(Map.of("ids", List.of(1, 2, 3), "name", "x")));
+        assertEquals("SELECT * FROM t WHERE id IN (?, ?, ?) AND name = ?", e.sql());
+        assertArrayEquals(new Object[] { 1, 2, 3, "x" }, e.args());
+
+        e = parsed.expand(new MapSqlParameterSource(Map.of("ids", new Object[] { "a" }, "name", "y")));
+        assertEquals("SELECT * FROM t WHERE id IN (?) AND name = ?", e.sql());
+        assertArrayEquals(new Object[] { "a", "y" }, e.args());
+    }
+
+    @Test
+    public void testExpandErrors() {
+        ParsedSql parsed = ParsedSql.parse("SELECT * FROM t WHERE id IN (:ids)");
+        assertThrows(IllegalArgumentException.class, () -> parsed.expand(new MapSqlParameterSource(Map.of())));
+        assertThrows(IllegalArgumentException.class,
+                () -> parsed.expand(new MapSqlParameterSource(Map.of("ids", List.of()))));
+    }
+}
@@ -0,0 +1,204 @@
+package com.miniSpring.jdbc.tx;
+
+import com.miniSpring.annotation.Id;
+import com.miniSpring.annotation.Table;
+import com.miniSpring.exception.TransactionException;
+import com.miniSpring.jdbc.JdbcTestBase;
+import com.miniSpring.jdbc.entity.EntityTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: DataSourceTransactionManagerTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 10:05
+ * @Version 1.0
+ */
+public class DataSourceTransactionManagerTest extends JdbcTestBase {
+    static final TransactionDefinition REQUIRES_NEW =
+            new TransactionDefinition(Propagation.REQUIRES_NEW, Isolation.DEFAULT, false);
+    static final TransactionDefinition NESTED = new TransactionDefinition(Propagation.NESTED, Isolation.DEFAULT, false);
+
+    @Table("users")
+    public static class User {
+        @Id(generated = true)
+        public Long id;
+        public String name;
+        public Integer age;
+    }
+
+    DataSourceTransactionManager tm;
+
+    @BeforeEach
+    public void createTransactionManager() {
+        this.tm = new DataSourceTransactionManager(this.dataSource);
+    }
+
+    List<String> names() {
+        try (Stream<String> names = this.jdbcTemplate.queryForStream("SELECT name FROM users ORDER BY id",
+                (rs, rowNum) -> rs.getString(1))) {
+            return names.toList();
+        }
+    }
+
+    void insert(String name) {
+        this.jdbcTemplate.update(INSERT_USER, name, 1);
+    }
+
+    @Test
+    public void testRequiredCommitAndRollback() {
+        this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+            insert("a");
+            return null;
+        });
+        assertThrows(TransactionException.class, () -> this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+            insert("b");
+            throw new IllegalStateException("fail");
+        }));
+        assertEquals(List.of("a"), names());
+    }
+
+    @Test
+    public void testParticipatingFailureMarksRollbackOnly() {
+        TransactionException e = assertThrows(TransactionException.class,
+                () -> this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+                    insert("outer");
+                    try {
+                        this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+                            throw new IllegalStateException("inner");
+                        });
+                    } catch (TransactionException ignore) {
+                        //吞掉内层异常，外层提交时仍然回滚
+                    }
+                    return null;
+                }));
+        assertTrue(e.getMessage().contains("rollback-only"));
+        assertEquals(List.of(), names());
+    }
+
+    @Test
+    public void testRequiresNewCommitsIndependently() {
+        assertThrows(TransactionException.class, () -> this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+            //外层还未使用连接，sqlite不会因写锁阻塞内层事务
+            this.tm.execute(REQUIRES_NEW, () -> {
+                insert("inner");
+                return null;
+            });
+            insert("outer");
+            throw new IllegalStateException("fail");
+        }));
+        assertEquals(List.of("inner"), names());
+    }
+
+    @Test
+    public void testNestedRollsBackToSavepoint() {
+        this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+            insert("outer");
+            assertThrows(TransactionException.class, () -> this.tm.execute(NESTED, () -> {
+                insert("nested");
+                throw new IllegalStateException("fail");
+            }));
+            insert("after");
+            return null;
+        });
+        assertEquals(List.of("outer", "after"), names());
+    }
+
+    @Test
+    public void testNestedResetsRollbackOnlyOfJoinedMethod() {
+        this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+            insert("outer");
+            assertThrows(TransactionException.class, () -> this.tm.execute(NESTED, () -> {
+                //加入嵌套事务的REQUIRED方法失败时会标记只能回滚，回滚到Savepoint后应恢复
+                return this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+                    insert("joined");
+                    throw new IllegalStateException("fail");
+                });
+            }));
+            return null;
+        });
+        assertEquals(List.of("outer"), names());
+    }
+
+    @Test
+    public void testNestedKeepsRollbackOnlySetBeforeSavepoint() {
+        assertThrows(TransactionException.class, () -> this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+            insert("outer");
+            try {
+                this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+                    throw new IllegalStateException("inner");
+                });
+            } catch (TransactionException ignore) {
+            }
+            assertThrows(TransactionException.class, () -> this.tm.execute(NESTED, () -> {
+                throw new IllegalStateException("nested");
+            }));
+            return null;
+        }));
+        assertEquals(List.of(), names());
+    }
+
+    @Test
+    public void testCleanupFailureIsSuppressed() {
+        //归还连接时失败，不应覆盖业务方法的异常
+        DataSource failingClose = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { DataSource.class }, (proxy, method, args) -> {
+                    Object r = method.invoke(this.dataSource, args);
+                    if (r instanceof Connection con) {
+                        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class },
+                                (p, m, a) -> {
+                                    if (m.getName().equals("close")) {
+                                        con.close();
+                                        throw new SQLException("close failed");
+                                    }
+                                    try {
+                                        return m.invoke(con, a);
+                                    } catch (InvocationTargetException e) {
+                                        throw e.getCause();
+                                    }
+                                });
+                    }
+                    return r;
+                });
+        DataSourceTransactionManager manager = new DataSourceTransactionManager(failingClose);
+        IllegalStateException cause = new IllegalStateException("business");
+        TransactionException e = assertThrows(TransactionException.class, () -> manager.execute(
+                TransactionDefinition.DEFAULT, () -> {
+                    TransactionalUtils.getCurrentConnection();
+                    throw cause;
+                }));
+        assertSame(cause, e.getCause());
+        assertEquals(1, e.getSuppressed().length);
+        assertEquals("close failed", e.getSuppressed()[0].getMessage());
+    }
+
+    @Test
+    public void testNestedRollbackDiscardsIdentityMap() {
+        insert("a");
+        EntityTemplate entityTemplate = new EntityTemplate(this.jdbcTemplate);
+        this.tm.execute(TransactionDefinition.DEFAULT, () -> {
+            assertEquals(1, entityTemplate.findById(User.class, 1).age);
+            assertThrows(TransactionException.class, () -> this.tm.execute(NESTED, () -> {
+                this.jdbcTemplate.update("UPDATE users SET age = ? WHERE id = ?", 2, 1);
+                //嵌套事务中重新缓存了修改后的实体
+                assertEquals(2, entityTemplate.findById(User.class, 1).age);
+                throw new IllegalStateException("nested");
+            }));
+            //回滚到Savepoint后不能返回嵌套事务中缓存的实体
+            assertEquals(1, entityTemplate.findById(User.class, 1).age);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package com.miniSpring.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ClassName: LatencyHistogramTest
+ * Description:
+ *
+ * @Author Jeffer Chen
+ * @Create 2026/10/21 17:50
+ * @Version 1.0
+ */
+public class LatencyHistogramTest {
+    @Test
+    public void testBucketIndexRoundTrip() {
+        //线性区间每个值一个桶
+        for (long v = 0; v < LatencyHistogram.LINEAR_LIMIT; v++) {
+            assertEquals(v, LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(v)));
+        }
+        //之后的桶代表值不小于原值，相对误差不超过1/32
+        for (long v = LatencyHistogram.LINEAR_LIMIT; v < 1_000_000_000_000L; v = v * 3 / 2 + 7) {
+            long h = LatencyHistogram.highestEquivalentValue(LatencyHistogram.bucketIndex(v));
+            assertTrue(h >= v && h - v <= v / LatencyHistogram.SUB_BUCKET_COUNT, v + " -> " + h);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testSnapshot() {
+        LatencyHistogram histogram = new LatencyHistogram(3);
+        assertEquals(4, histogram.recorders.length);
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        histogram.record(-5);
+        HistogramSnapshot s = histogram.snapshot();
+        assertEquals(1001, s.count());
+        assertEquals(1_000_000, s.max());
+        assertEquals(500_500_000.0 / 1001, s.mean(), 0.001);
+        assertEquals(500_000, s.p50(), 500_000 / 32.0);
+        assertEquals(990_000, s.p99(), 990_000 / 32.0);
+        assertTrue(s.p999() <= s.max());
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().count());
+        assertEquals(0, histogram.snapshot().p99());
+    }
+
+    @Test
+    public void testResetRestartsThroughput() {
+        LatencyHistogram histogram = new LatencyHistogram(1);
+        //模拟一小时前创建
+        histogram.startNanos = System.nanoTime() - 3_600_000_000_000L;
+        histogram.reset();
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(1);
+        }
+        //吞吐量从reset开始计算，而不是被创建以来的时间摊薄
+        assertTrue(histogram.snapshot().throughput() > 1.0, String.valueOf(histogram.snapshot().throughput()));
+    }
+}